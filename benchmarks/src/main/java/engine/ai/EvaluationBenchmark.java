@@ -0,0 +1,64 @@
+package engine.ai;
+
+import engine.board.BenchmarkPositions;
+import engine.board.Board;
+import engine.board.PackedMove;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the static evaluation, and ordering the legal moves for the search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.RUY_LOPEZ, BenchmarkPositions.QUEENS_GAMBIT,
+            BenchmarkPositions.SICILIAN, BenchmarkPositions.ENGLISH})
+    public String position;
+
+    private Board board;
+    private final int[] legalMoves = new int[Board.MAX_MOVES];
+    private final int[] orderedMoves = new int[Board.MAX_MOVES];
+    private final MoveOrderer moveOrderer = new MoveOrderer();
+    private int legalMoveCount;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.create(position);
+        legalMoveCount = board.getLegalMoves(board.getTurn(), legalMoves);
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return Evaluator.evaluate(board);
+    }
+
+    /**
+     * Scores and selects every move of a fresh copy of the legal moves, the most a node that never cuts off needs, as
+     * ordering an already ordered list is cheaper.
+     */
+    @Benchmark
+    public int[] orderMoves() {
+        System.arraycopy(legalMoves, 0, orderedMoves, 0, legalMoveCount);
+        moveOrderer.scoreMoves(board, orderedMoves, legalMoveCount, 0, PackedMove.NONE);
+        for (int i = 0; i < legalMoveCount; i++)
+            moveOrderer.selectMove(orderedMoves, legalMoveCount, i, 0);
+        return orderedMoves;
+    }
+}
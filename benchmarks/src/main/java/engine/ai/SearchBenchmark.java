@@ -0,0 +1,61 @@
+package engine.ai;
+
+import engine.board.BenchmarkPositions;
+import engine.board.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single threaded fixed depth search. The transposition table is emptied before each search, so every
+ * search does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final int HASH_SIZE = 16; // Small enough that emptying it doesn't dominate the shallow searches
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.RUY_LOPEZ, BenchmarkPositions.QUEENS_GAMBIT,
+            BenchmarkPositions.SICILIAN, BenchmarkPositions.ENGLISH})
+    public String position;
+
+    @Param({"4"})
+    public int depth;
+
+    private Board board;
+    private SearchEngine engine;
+    private SearchLimits limits;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.create(position);
+        engine = new SearchEngine(HASH_SIZE, 1);
+        limits = SearchLimits.depth(depth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        engine.clearHash();
+        return engine.search(board, limits);
+    }
+}
@@ -0,0 +1,97 @@
+package engine.ai;
+
+import engine.board.Board;
+
+/**
+ * Measures what each of the SearchOptions saves, by searching a fixed set of positions to a fixed depth with the
+ * default options, with each option switched from its default in turn, and with every option off. Each position is
+ * searched with an emptied transposition table on a single thread, so the node counts are the same from run to run.
+ * The nodes of each position are listed, as a total can hide an option that helps some positions and hurts others,
+ * and the total nodes and time are reported relative to the default options. The positions are searched once
+ * beforehand to warm up the JIT, which would otherwise slow down whichever options come first, so the time is only
+ * measured from the second pass.
+ *
+ * It reports node counts, which JMH doesn't measure, so it's run as a program rather than as a JMH benchmark.
+ *
+ * Usage: gradle searchOptions [-PsearchDepth=n]
+ */
+public final class SearchOptionsBenchmark {
+    private static final int DEFAULT_DEPTH = 7;
+
+    private static final String[] POSITIONS = {
+            Board.STARTING_FEN,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+            "r2q1rk1/ppp2ppp/2n1bn2/2bpp3/4P3/2PP1NP1/PP1N1PBP/R1BQ1RK1 w - - 0 8",
+            "8/8/4k3/8/2p5/8/B2K4/8 w - - 0 1",
+            "r1bq1rk1/pp2nppp/2n1p3/3pP3/1b1P4/2NB1N2/PP3PPP/R1BQK2R w KQ - 0 9"
+    };
+
+    private static final String[] CONFIGURATION_NAMES = {"default", "no null move", "no reductions", "aspiration",
+            "all off"};
+    private static final SearchOptions[] CONFIGURATIONS = {SearchOptions.DEFAULT,
+            SearchOptions.DEFAULT.withNullMovePruning(false), SearchOptions.DEFAULT.withLateMoveReductions(false),
+            SearchOptions.DEFAULT.withAspirationWindows(true), new SearchOptions(false, false, false)};
+
+    private SearchOptionsBenchmark() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    public static void main(final String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+
+        search(SearchOptions.DEFAULT, depth, new long[POSITIONS.length]);
+        System.out.printf("Searching %d positions to depth %d%n", POSITIONS.length, depth);
+
+        final long[][] positionNodes = new long[CONFIGURATIONS.length][POSITIONS.length];
+        final double[] times = new double[CONFIGURATIONS.length];
+        for (int i = 0; i < CONFIGURATIONS.length; i++) {
+            final long start = System.nanoTime();
+            search(CONFIGURATIONS[i], depth, positionNodes[i]);
+            times[i] = (System.nanoTime() - start) / 1e6;
+        }
+
+        System.out.printf("%-9s", "position");
+        for (final String name : CONFIGURATION_NAMES)
+            System.out.printf(" %14s", name);
+        System.out.println();
+        for (int position = 0; position < POSITIONS.length; position++) {
+            System.out.printf("%-9d", position + 1);
+            for (final long[] nodes : positionNodes)
+                System.out.printf(" %14d", nodes[position]);
+            System.out.println();
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %14s %12s %12s %10s%n", "options", "nodes", "time (ms)", "rel. nodes", "rel. time");
+        final long baseNodes = total(positionNodes[0]);
+        for (int i = 0; i < CONFIGURATIONS.length; i++) {
+            final long nodes = total(positionNodes[i]);
+            System.out.printf("%-14s %14d %12.0f %12.3f %10.2f%n", CONFIGURATION_NAMES[i], nodes, times[i],
+                    nodes / (double) baseNodes, times[i] / times[0]);
+        }
+    }
+
+    /**
+     * Searches every position with the options.
+     * @param nodes Receives the nodes searched for each position.
+     */
+    private static void search(final SearchOptions options, final int depth, final long[] nodes) {
+        final SearchEngine engine = new SearchEngine(TranspositionTable.DEFAULT_MEGABYTES, 1);
+        engine.setOptions(options);
+        for (int i = 0; i < POSITIONS.length; i++) {
+            engine.clearHash();
+            nodes[i] = engine.search(new Board(POSITIONS[i]), SearchLimits.depth(depth)).getNodes();
+        }
+        engine.shutdown();
+    }
+
+    private static long total(final long[] nodes) {
+        long total = 0;
+        for (final long positionNodes : nodes)
+            total += positionNodes;
+        return total;
+    }
+}
@@ -0,0 +1,64 @@
+package engine.ai;
+
+import engine.board.BenchmarkPositions;
+import engine.board.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the time taken by a fixed depth search scales with the number of search threads. The transposition
+ * table is emptied before each search, and the speedup of a thread count is its time relative to a single thread's.
+ * Extra thread counts can be given with -p threads=1,2,4,8,16.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmpBenchmark {
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.RUY_LOPEZ, BenchmarkPositions.QUEENS_GAMBIT,
+            BenchmarkPositions.SICILIAN, BenchmarkPositions.ENGLISH})
+    public String position;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"5"})
+    public int depth;
+
+    private Board board;
+    private SearchEngine engine;
+    private SearchLimits limits;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.create(position);
+        engine = new SearchEngine(TranspositionTable.DEFAULT_MEGABYTES, threads);
+        limits = SearchLimits.depth(depth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        engine.clearHash();
+        return engine.search(board, limits);
+    }
+}
@@ -0,0 +1,52 @@
+package engine.board;
+
+/**
+ * The fixed set of positions every benchmark runs over, so results stay comparable between runs.
+ */
+public final class BenchmarkPositions {
+    // Names usable as JMH parameter values
+    public static final String START = "start";
+    public static final String RUY_LOPEZ = "ruyLopez";
+    public static final String QUEENS_GAMBIT = "queensGambit";
+    public static final String SICILIAN = "sicilian";
+    public static final String ENGLISH = "english";
+
+    private BenchmarkPositions() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    /**
+     * Creates a new board set up in the named position.
+     * @param name One of the position names.
+     * @return The board.
+     */
+    public static Board create(final String name) {
+        switch (name) {
+            case START:
+                return playMoves();
+            case RUY_LOPEZ:
+                return playMoves("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7");
+            case QUEENS_GAMBIT:
+                return playMoves("d2d4", "g8f6", "c2c4", "e7e6", "b1c3", "f8b4", "e2e3", "e8g8", "f1d3", "d7d5");
+            case SICILIAN:
+                return playMoves("e2e4", "c7c5", "g1f3", "d7d6", "d2d4", "c5d4", "f3d4", "g8f6", "b1c3", "a7a6",
+                        "c1e3", "e7e5");
+            case ENGLISH:
+                return playMoves("c2c4", "e7e5", "b1c3", "g8f6", "g2g3", "d7d5", "c4d5", "f6d5", "f1g2", "d5b6",
+                        "g1f3", "b8c6");
+            default:
+                throw new IllegalArgumentException("Unknown benchmark position: " + name);
+        }
+    }
+
+    private static Board playMoves(final String... moves) {
+        final Board board = new Board();
+        for (final String move : moves) {
+            final int packedMove = board.findLegalMove(move);
+            if (packedMove == PackedMove.NONE)
+                throw new IllegalArgumentException("Illegal move in benchmark position: " + move);
+            board.makeMove(packedMove);
+        }
+        return board;
+    }
+}
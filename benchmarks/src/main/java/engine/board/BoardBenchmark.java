@@ -0,0 +1,66 @@
+package engine.board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures making and undoing moves, and generating them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.RUY_LOPEZ, BenchmarkPositions.QUEENS_GAMBIT,
+            BenchmarkPositions.SICILIAN, BenchmarkPositions.ENGLISH})
+    public String position;
+
+    private Board board;
+    private final int[] legalMoves = new int[Board.MAX_MOVES];
+    private final int[] scratchMoves = new int[Board.MAX_MOVES];
+    private int legalMoveCount;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.create(position);
+        legalMoveCount = board.getLegalMoves(board.getTurn(), legalMoves);
+    }
+
+    /**
+     * Makes and undoes every legal move in the position.
+     */
+    @Benchmark
+    public long makeUndoMove() {
+        long hash = 0;
+        for (int i = 0; i < legalMoveCount; i++) {
+            board.makeMove(legalMoves[i]);
+            hash ^= board.getZobristHash();
+            board.undoMove();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int getLegalMoves() {
+        return board.getLegalMoves(board.getTurn(), scratchMoves);
+    }
+
+    @Benchmark
+    public int getLegalCaptures() {
+        return board.getLegalCaptures(board.getTurn(), scratchMoves);
+    }
+}
@@ -16,4 +16,12 @@ public enum Team {
     public int getValue() {
         return value;
     }
+
+    /**
+     * Gets the opposing team
+     * @return Black if this team is white, otherwise white
+     */
+    public Team getOpponent() {
+        return this == WHITE ? BLACK : WHITE;
+    }
 }
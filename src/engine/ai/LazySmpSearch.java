@@ -0,0 +1,125 @@
+package engine.ai;
+
+import engine.board.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a search on several threads using Lazy SMP. Every thread searches the same root position on its own copy of the
+ * board, and they cooperate only through the shared transposition table: results found by one thread are picked up by
+ * the others, which lets them skip or reorder work. Half of the helper threads search one ply deeper, which spreads
+ * the threads over different parts of the tree. The calling thread's result is used, and the helpers are stopped as
+ * soon as it finishes. Only the calling thread watches the time and node budgets, the helpers run until stopped.
+ *
+ * Implemented from www.chessprogramming.org/Lazy_SMP
+ */
+class LazySmpSearch {
+
+    private final int threadCount;
+    private final ExecutorService helperPool; // Null when searching on a single thread
+
+    /**
+     * @param threadCount The number of threads to search on, including the calling thread.
+     */
+    LazySmpSearch(final int threadCount) {
+        if (threadCount < 1)
+            throw new IllegalArgumentException("At least one search thread is required");
+
+        this.threadCount = threadCount;
+        this.helperPool = threadCount == 1 ? null : Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+            final Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true); // Helper threads shouldn't keep the program alive
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the board until the depth is completed, a budget runs out, or the stop flag is set by another thread.
+     * @param board The board to search. It is searched in place by the calling thread, and copied for each helper.
+     * @param limits The limits of the search.
+     * @param options The switches for the selective parts of the search.
+     * @param transpositionTable The transposition table shared by every thread.
+     * @param stopped The flag to set to stop the search early. If it's set before the first iteration completes, the
+     *                best move found so far is returned, so a move is always found when one exists.
+     * @param listener Notified of the calling thread's iterations and progress, may be null.
+     * @return The result of the calling thread's last completed iteration.
+     */
+    SearchResult search(final Board board, final SearchLimits limits, final SearchOptions options,
+                        final TranspositionTable transpositionTable, final AtomicBoolean stopped,
+                        final SearchListener listener)
+            throws InterruptedException, ExecutionException {
+        final long startTime = System.nanoTime();
+        final int depth = limits.getDepth();
+        final List<NegamaxAlphaBetaTransposition> helpers = new ArrayList<>();
+        final List<Future<?>> helperResults = new ArrayList<>();
+
+        for (int i = 1; i < threadCount; i++) {
+            final NegamaxAlphaBetaTransposition helper = new NegamaxAlphaBetaTransposition(board.copy(), options,
+                    transpositionTable, stopped);
+            final int helperDepth = depth + i % 2;
+            helpers.add(helper);
+            helperResults.add(helperPool.submit(() -> helper.iterativeDeepening(helperDepth, null, startTime, null)));
+        }
+
+        final NegamaxAlphaBetaTransposition main = new NegamaxAlphaBetaTransposition(board, options,
+                transpositionTable, stopped);
+        final NegamaxAlphaBetaTransposition.IterationListener iterationListener = listener == null ? null :
+                new NegamaxAlphaBetaTransposition.IterationListener() {
+                    @Override
+                    public void iterationCompleted(final int depth, final int score, final int[] principalVariation) {
+                        // The helpers are still running, so their counters are only a snapshot
+                        listener.iterationCompleted(new SearchResult(principalVariation, score, depth,
+                                elapsedMillis(startTime), collectStatistics(main, helpers)));
+                    }
+
+                    @Override
+                    public void progressUpdated(final double progress) {
+                        listener.progressUpdated(progress);
+                    }
+                };
+
+        try {
+            main.iterativeDeepening(depth, limits, startTime, iterationListener);
+        } finally {
+            stopped.set(true);
+            for (final Future<?> helperResult : helperResults)
+                helperResult.get();
+        }
+
+        return new SearchResult(main.getCompletedPrincipalVariation(), main.getCompletedScore(),
+                main.getCompletedDepth(), elapsedMillis(startTime), collectStatistics(main, helpers));
+    }
+
+    /**
+     * Adds the counters of every thread together, keeping the iterations of the calling thread.
+     */
+    private static SearchStatistics collectStatistics(final NegamaxAlphaBetaTransposition main,
+                                                      final List<NegamaxAlphaBetaTransposition> helpers) {
+        final SearchStatistics statistics = main.getStatistics().copy();
+        for (final NegamaxAlphaBetaTransposition helper : helpers)
+            statistics.add(helper.getStatistics());
+        return statistics;
+    }
+
+    private static long elapsedMillis(final long startTime) {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Stops the helper threads. The search can't be used afterwards.
+     */
+    void shutdown() {
+        if (helperPool != null)
+            helperPool.shutdownNow();
+    }
+}
@@ -0,0 +1,174 @@
+package engine.ai;
+
+import engine.Team;
+import engine.board.Board;
+import engine.board.PackedMove;
+import engine.pieces.Piece;
+
+/**
+ * Orders the moves of each node so the moves most likely to cause a beta cutoff are searched first. Every move gets an
+ * integer score from the information packed into it and from what the search has learnt so far, without making any
+ * moves on the board. The scores fall into stages, each above all of the stages after it:
+ *
+ * 1. The hash move, the best move of an earlier search of the position.
+ * 2. Captures and promotions that don't lose material, the most valuable victim first and the least valuable attacker
+ *    breaking ties (MVV-LVA).
+ * 3. The killer moves of the ply, quiet moves that caused a cutoff in a sibling position.
+ * 4. Captures and promotions that lose material by static exchange evaluation, the least losing first.
+ * 5. The remaining quiet moves, by how often they have caused cutoffs anywhere in the tree (the history heuristic).
+ *
+ * Moves are picked one at a time rather than sorted up front, as a node that cuts off early never needs the rest.
+ * Each search thread has its own orderer, since the killers and history are learnt from that thread's search.
+ *
+ * Implemented from www.chessprogramming.org/Move_Ordering, www.chessprogramming.org/MVV-LVA,
+ * www.chessprogramming.org/Static_Exchange_Evaluation, www.chessprogramming.org/Killer_Heuristic and
+ * www.chessprogramming.org/History_Heuristic
+ */
+final class MoveOrderer {
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28; // The first killer scores one more than the second
+    private static final int LOSING_CAPTURE_SCORE = 1 << 27; // Less the material lost, staying above the history
+    private static final int MAX_HISTORY = 1 << 20; // Kept well below KILLER_SCORE, the history is halved beyond it
+    private static final int KILLERS_PER_PLY = 2;
+
+    // Piece values for MVV-LVA, indexed by piece type. The king is only ever an attacker, and the worst one to use.
+    private static final int[] VICTIM_VALUES = {1, 5, 3, 3, 0, 9};
+    private static final int[] ATTACKER_VALUES = {1, 5, 3, 3, 10, 9};
+
+    private final int[][] scores = new int[NegamaxAlphaBetaTransposition.MAX_PLY + 1][Board.MAX_MOVES]; // By ply
+    private final int[][] killers = new int[NegamaxAlphaBetaTransposition.MAX_PLY + 1][KILLERS_PER_PLY];
+    private final int[][][] history = new int[2][64][64]; // Indexed by team, start position, then end position
+
+    /**
+     * Scores the moves of a node, ready for selectMove to pick them in order.
+     * @param board The board the moves are for.
+     * @param moves The packed moves.
+     * @param moveCount The number of moves.
+     * @param ply The ply of the node, which selectMove must be called with too.
+     * @param hashMove The best move from the transposition table, or PackedMove.NONE.
+     */
+    void scoreMoves(final Board board, final int[] moves, final int moveCount, final int ply, final int hashMove) {
+        final int[] moveScores = scores[ply];
+        final int[][] teamHistory = history[board.getTurn().getValue()];
+        final int[] plyKillers = killers[ply];
+
+        for (int i = 0; i < moveCount; i++) {
+            final int move = moves[i];
+            if (move == hashMove) {
+                moveScores[i] = HASH_MOVE_SCORE;
+            } else if (PackedMove.isAttackingMove(move) || PackedMove.isPromotion(move)) {
+                final int exchange = exchangeScore(board, move);
+                moveScores[i] = exchange < 0 ? LOSING_CAPTURE_SCORE + exchange : CAPTURE_SCORE + captureScore(move);
+            } else if (move == plyKillers[0]) {
+                moveScores[i] = KILLER_SCORE + 1;
+            } else if (move == plyKillers[1]) {
+                moveScores[i] = KILLER_SCORE;
+            } else {
+                moveScores[i] = teamHistory[PackedMove.getStartPosition(move)][PackedMove.getEndPosition(move)];
+            }
+        }
+    }
+
+    /**
+     * The MVV-LVA score of a capture, with the value of any promotion added to the victim's.
+     */
+    private static int captureScore(final int move) {
+        int gain = 0;
+        if (PackedMove.isAttackingMove(move))
+            gain += VICTIM_VALUES[PackedMove.getAttackedPieceType(move).getValue()];
+        if (PackedMove.isPromotion(move))
+            gain += VICTIM_VALUES[PackedMove.getPromotionType(move).getValue()];
+        return gain * 16 - ATTACKER_VALUES[PackedMove.getPieceType(move).getValue()];
+    }
+
+    /**
+     * The static exchange evaluation of a capture or promotion, which is only needed when the piece left on the square
+     * is worth more than the move wins. Anything else wins at least as much as it could lose, so it's scored 0 without
+     * evaluating it.
+     */
+    private static int exchangeScore(final Board board, final int move) {
+        int gain = 0;
+        // The king is valued at 0, as it can only legally capture what isn't defended
+        int risked = VICTIM_VALUES[PackedMove.getPieceType(move).getValue()];
+        if (PackedMove.isAttackingMove(move))
+            gain += VICTIM_VALUES[PackedMove.getAttackedPieceType(move).getValue()];
+        if (PackedMove.isPromotion(move)) {
+            risked = VICTIM_VALUES[PackedMove.getPromotionType(move).getValue()];
+            gain += risked - VICTIM_VALUES[Piece.PieceType.PAWN.getValue()];
+        }
+        if (gain >= risked)
+            return 0;
+        return board.staticExchangeEvaluation(move);
+    }
+
+    /**
+     * Swaps the best scoring of the moves not yet searched into the specified index, one step of a selection sort.
+     * @param moves The packed moves scored by scoreMoves.
+     * @param moveCount The number of moves.
+     * @param index The index of the next move to search. Every move before it must already have been selected.
+     * @param ply The ply the moves were scored at.
+     * @return The move to search next.
+     */
+    int selectMove(final int[] moves, final int moveCount, final int index, final int ply) {
+        final int[] moveScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moveCount; i++)
+            if (moveScores[i] > moveScores[best])
+                best = i;
+
+        final int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        final int score = moveScores[best];
+        moveScores[best] = moveScores[index];
+        moveScores[index] = score;
+        return move;
+    }
+
+    /**
+     * @param index The index of a move already picked by selectMove.
+     * @param ply The ply the moves were scored at.
+     * @return If the move is a capture or promotion that loses material by static exchange evaluation.
+     */
+    boolean isLosingCapture(final int index, final int ply) {
+        final int score = scores[ply][index];
+        return score < LOSING_CAPTURE_SCORE && score > MAX_HISTORY;
+    }
+
+    /**
+     * Learns from a move that caused a beta cutoff. Quiet moves become killers of the ply and gain history, deeper
+     * cutoffs gaining more as they save more work. Captures and promotions are already ordered well by MVV-LVA.
+     * @param team The team that made the move.
+     * @param move The packed move.
+     * @param depth The remaining depth of the node.
+     * @param ply The ply of the node.
+     */
+    void cutoff(final Team team, final int move, final int depth, final int ply) {
+        if (PackedMove.isAttackingMove(move) || PackedMove.isPromotion(move))
+            return;
+
+        final int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        final int[][] teamHistory = history[team.getValue()];
+        final int start = PackedMove.getStartPosition(move);
+        final int end = PackedMove.getEndPosition(move);
+        teamHistory[start][end] += depth * depth;
+        if (teamHistory[start][end] > MAX_HISTORY)
+            ageHistory();
+    }
+
+    /**
+     * Halves the history, keeping it below the killers while the relative order of the moves survives.
+     */
+    private void ageHistory() {
+        for (final int[][] teamHistory : history)
+            for (final int[] startHistory : teamHistory)
+                for (int end = 0; end < startHistory.length; end++)
+                    startHistory[end] /= 2;
+    }
+}
@@ -1,110 +1,562 @@
 package engine.ai;
 
+import engine.Team;
+import engine.board.Bitboard;
 import engine.board.Board;
-import engine.board.Move;
-import javafx.concurrent.Task;
+import engine.board.PackedMove;
+import engine.pieces.Piece;
 
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleConsumer;
 
 /**
  * The negamax variation of minimax algorithm, with alpha beta pruning.
  *
- * Implemented from en.wikipedia.org/wiki/Negamax#Negamax_with_alpha_beta_pruning_and_transposition_tables
+ * Moves are searched with principal variation search. Assuming the first move is the best, which good move ordering
+ * makes likely, the other moves are only searched with a null window around alpha, proving cheaply that they're no
+ * better. A move that does beat alpha is searched again with the full window to find its actual score. The best line
+ * found is collected in a triangular table, one row per ply, each row built from the best move and the row below.
+ *
+ * The search is selective, searching moves that are unlikely to matter less deeply. Null move pruning cuts off a node
+ * when passing the turn to the opponent, searched to a reduced depth, still scores at least beta. Late move reductions
+ * search quiet moves ordered late to a reduced depth first, and only search one to the full depth if it beats alpha.
+ * Both can be switched off with SearchOptions.
+ *
+ * Checkmate is scored by its distance from the root, so the quickest mate is preferred. The transposition table holds
+ * mate scores by their distance from the stored position instead, as the same position can be reached at any ply. Once
+ * a mate has been found, mate distance pruning cuts off every node too deep to find a quicker one.
+ *
+ * Each instance searches its own board on a single thread, but any number of instances may share one transposition
+ * table and stop flag, which is how LazySmpSearch runs several of them in parallel.
+ *
+ * The search is iteratively deepened: depth 1 is searched first, then depth 2 and so on. The transposition table
+ * entries left behind by each iteration order the moves of the next, so the shallow iterations mostly pay for
+ * themselves, and the search can be stopped at any time with the result of the last completed iteration. The score
+ * of each iteration is usually close to the one before, so the root can be searched with an aspiration window around
+ * it, which is widened and searched again in the rare case that the score falls outside.
+ *
+ * Implemented from en.wikipedia.org/wiki/Negamax#Negamax_with_alpha_beta_pruning_and_transposition_tables,
+ * www.chessprogramming.org/Principal_Variation_Search, www.chessprogramming.org/Triangular_PV-Table,
+ * www.chessprogramming.org/Null_Move_Pruning, www.chessprogramming.org/Late_Move_Reductions,
+ * www.chessprogramming.org/Aspiration_Windows, www.chessprogramming.org/Checkmate#MateScores and
+ * www.chessprogramming.org/Mate_Distance_Pruning
  */
-class NegamaxAlphaBetaTransposition extends Task<Move> {
+class NegamaxAlphaBetaTransposition {
 
-    private static final double MAX_WORK = 100.0;
-    private double workDone = 0.0;
-    HashMap<Long, HashEntry> transpositionTable;
-    Board board;
-    int maxDepth;
+    static final int MAX_PLY = 64;
+    private static final long TIME_CHECK_MASK = 1023; // The clock is read once every 1024 nodes
+    private static final int MAX_SCORE = Evaluator.CHECKMATE_VALUE + 1; // Beyond any score a position can have
+    private static final int MIN_SCORE = -MAX_SCORE;
+    private static final int ASPIRATION_MIN_DEPTH = 4; // The scores of shallower iterations swing too much to aim at
+    private static final int ASPIRATION_WINDOW = 50; // The first window's distance either side of the last score
+    private static final int ASPIRATION_WIDENING = 4; // How many times further the window reaches after each failure
+    private static final int NULL_MOVE_MIN_DEPTH = 3; // Shallower nodes are cheap enough to search in full
+    private static final int NULL_MOVE_REDUCTION = 2; // How much shallower than its moves the null move is searched
+    private static final int DEEP_NULL_MOVE_REDUCTION = 3; // Used from DEEP_NULL_MOVE_DEPTH on
+    private static final int DEEP_NULL_MOVE_DEPTH = 7;
+    private static final int LATE_MOVE_INDEX = 3; // Moves from this index on are late, behind the best ordered ones
+    private static final int LATE_MOVE_MIN_DEPTH = 3;
+    private static final int VERY_LATE_MOVE_INDEX = 6; // Moves from this index on are reduced by two plies, not one
+    private static final int VERY_LATE_MOVE_MIN_DEPTH = 6; // Where reducing by two still leaves three plies to search
+    private final TranspositionTable transpositionTable;
+    private final Board board;
+    private final SearchOptions options;
+    private final AtomicBoolean stopped; // Set to abandon the search, the result of an abandoned search is meaningless
+    private final int[][] moveBuffers = new int[MAX_PLY][Board.MAX_MOVES]; // Preallocated move lists, one per ply
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1]; // The best line from each ply, by ply
+    private final int[] pvLength = new int[MAX_PLY + 1]; // The length of the line in each row of the table
+    private final MoveOrderer moveOrderer = new MoveOrderer();
+    private final SearchStatistics statistics = new SearchStatistics(); // Counted by this thread alone
+    private int completedDepth; // The depth of the last completed iteration
+    private int completedScore; // The score of the last completed iteration
+    private int[] completedPrincipalVariation = new int[0]; // The best line of the last completed iteration
+    private int rootScore; // The score of the best root move found by the last call to negamaxRoot
+    private boolean limitsArmed; // Whether this instance stops the search when a budget runs out
+    private long deadline; // The System.nanoTime() at which the time budget runs out
+    private boolean hasDeadline;
+    private long nodeLimit = Long.MAX_VALUE;
 
-    NegamaxAlphaBetaTransposition(final Board board, final int maxDepth, HashMap<Long, HashEntry> transpositionTable) {
+    NegamaxAlphaBetaTransposition(final Board board, final SearchOptions options,
+                                  final TranspositionTable transpositionTable, final AtomicBoolean stopped) {
         this.board = board;
-        this.maxDepth = maxDepth;
+        this.options = options;
         this.transpositionTable = transpositionTable;
+        this.stopped = stopped;
+    }
+
+    SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    int getCompletedScore() {
+        return completedScore;
+    }
+
+    /**
+     * @return The best line of the last completed iteration, starting with its best move. Lines are cut short where
+     * the transposition table ended the search of a position, except for the line of a mate, which is always played
+     * out to the checkmate.
+     */
+    int[] getCompletedPrincipalVariation() {
+        return completedPrincipalVariation;
+    }
+
+    /**
+     * Searches the board one ply deeper at a time until maxDepth has been completed or the search is stopped.
+     * @param maxDepth The depth of the last iteration.
+     * @param limits The time and node budgets to stop the search with, or null to run until maxDepth or until another
+     *               thread stops the search. The budgets only take effect once the first iteration has completed, so
+     *               a move is always found when one exists.
+     * @param startTime The System.nanoTime() the time budget is measured from.
+     * @param listener Notified of each completed iteration and the progress through the search, may be null.
+     * @return The best packed move of the last completed iteration, or PackedMove.NONE if there are no legal moves.
+     */
+    int iterativeDeepening(final int maxDepth, final SearchLimits limits, final long startTime,
+                           final IterationListener listener) {
+        int bestMove = PackedMove.NONE;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            final int iterationDepth = depth;
+            final long iterationStartNodes = statistics.nodes;
+            final long iterationStartTime = System.nanoTime();
+            final int move = aspirationSearch(depth, bestMove, listener == null ? null : progress ->
+                    listener.progressUpdated(iterationProgress(limits, startTime, maxDepth, iterationDepth, progress)));
+            if (stopped.get()) {
+                // The iteration was abandoned part way through, and its result can't be trusted unless there's nothing
+                // better, which happens when the search is stopped from outside during the first iteration
+                if (bestMove == PackedMove.NONE && move != PackedMove.NONE) {
+                    bestMove = move;
+                    completedPrincipalVariation = new int[] {move};
+                }
+                break;
+            }
+            bestMove = move;
+            completedDepth = depth;
+            completedScore = rootScore;
+            completedPrincipalVariation = Arrays.copyOf(pvTable[0], pvLength[0]);
+            statistics.iterationCompleted(depth, statistics.nodes - iterationStartNodes,
+                    System.nanoTime() - iterationStartTime);
+            if (bestMove == PackedMove.NONE)
+                break; // There are no legal moves, searching deeper won't change that
+            assert !Evaluator.isMateScore(completedScore) || isMatingLine(completedScore, completedPrincipalVariation) :
+                    "The principal variation of a mate doesn't end in checkmate";
+            if (listener != null)
+                listener.iterationCompleted(depth, completedScore, completedPrincipalVariation);
+            if (completedScore >= Evaluator.MATE_BOUND)
+                break; // A shallower iteration would have found any quicker mate, so deeper ones can't improve on it
+
+            if (limits != null && !limitsArmed)
+                armLimits(limits, startTime);
+        }
+        return bestMove;
     }
 
-    @Override
-    protected Move call() {
-        return negamaxRoot(Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1);
+    private void armLimits(final SearchLimits limits, final long startTime) {
+        limitsArmed = true;
+        hasDeadline = limits.hasTimeLimit();
+        deadline = startTime + limits.getMoveTime() * 1_000_000;
+        nodeLimit = limits.hasNodeLimit() ? limits.getNodes() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Stops the search once the time or node budget has run out.
+     */
+    private void checkLimits() {
+        final long nodes = statistics.nodes;
+        if (nodes >= nodeLimit || hasDeadline && (nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() - deadline >= 0)
+            stopped.set(true);
+    }
+
+    /**
+     * The progress through a time limited search is the fraction of the time used, otherwise it's the fraction of the
+     * iterations completed. Deeper iterations take far longer, so the latter moves faster at the start.
+     */
+    private static double iterationProgress(final SearchLimits limits, final long startTime, final int maxDepth,
+                                            final int depth, final double rootProgress) {
+        if (limits != null && limits.hasTimeLimit())
+            return Math.min(1.0, (System.nanoTime() - startTime) / (limits.getMoveTime() * 1e6));
+        return (depth - 1 + rootProgress) / maxDepth;
+    }
+
+    /**
+     * Searches the root with a window around the score of the last completed iteration, as a narrow window cuts off
+     * more of the tree. A score on or outside the window is only a bound, so the side it failed on is widened, further
+     * each time, and the root is searched again until the score lands inside.
+     * @param depth The depth of the iteration.
+     * @param previousBestMove The best move of the last completed iteration, searched first.
+     * @param progressListener Receives the fraction of root moves searched, may be null.
+     * @return The best move found, or PackedMove.NONE if there are no legal moves.
+     */
+    private int aspirationSearch(final int depth, final int previousBestMove, final DoubleConsumer progressListener) {
+        // Mate scores change with every iteration as the mate is found at a different ply, so there's nothing to aim at
+        if (!options.isAspirationWindows() || depth < ASPIRATION_MIN_DEPTH || Evaluator.isMateScore(completedScore))
+            return negamaxRoot(depth, MIN_SCORE, MAX_SCORE, previousBestMove, progressListener);
+
+        int delta = ASPIRATION_WINDOW;
+        int alpha = boundedScore((long) completedScore - delta);
+        int beta = boundedScore((long) completedScore + delta);
+        int bestMove = previousBestMove;
+        while (true) {
+            final int move = negamaxRoot(depth, alpha, beta, bestMove, progressListener);
+            if (stopped.get() || move == PackedMove.NONE)
+                return move;
+
+            delta *= ASPIRATION_WIDENING;
+            if (rootScore <= alpha && alpha > MIN_SCORE) {
+                alpha = boundedScore((long) rootScore - delta);
+            } else if (rootScore >= beta && beta < MAX_SCORE) {
+                beta = boundedScore((long) rootScore + delta);
+                bestMove = move; // The move that failed high is likely to still be best
+            } else {
+                return move;
+            }
+            statistics.aspirationReSearches++;
+        }
+    }
+
+    private static int boundedScore(final long score) {
+        return (int) Math.max(MIN_SCORE, Math.min(MAX_SCORE, score));
     }
 
     @SuppressWarnings("Duplicates")
     // The driver method selects a particular move based on the best score
-    public Move negamaxRoot(int alpha,final int beta) {
+    private int negamaxRoot(final int maxDepth, int alpha, final int beta, final int previousBestMove,
+                            final DoubleConsumer progressListener) {
 
-        Move bestMove = null;
-        final List<Move> legalMoves = SortingHat.sort(board.getLegalMoves(board.getTurn()), board);
+        final int[] legalMoves = moveBuffers[0];
+        final int moveCount = board.getLegalMoves(board.getTurn(), legalMoves);
+        if (moveCount == 0) {
+            pvLength[0] = 0;
+            rootScore = Evaluator.evaluateEndGame(board, 0);
+            return PackedMove.NONE;
+        }
+        // The previous iteration's choice is searched first, or on the first iteration the choice of an earlier search
+        final long hashEntry = transpositionTable.probe(board.getZobristHash());
+        final int hashMove = previousBestMove != PackedMove.NONE || hashEntry == TranspositionTable.NO_ENTRY ?
+                previousBestMove : TranspositionTable.getBestMove(hashEntry);
+        moveOrderer.scoreMoves(board, legalMoves, moveCount, 0, hashMove);
+        int bestMove = PackedMove.NONE;
+        pvLength[0] = 0;
 
-        for(int i = 0; i < legalMoves.size(); i++) {
-            Move move = legalMoves.get(i);
+        for(int i = 0; i < moveCount; i++) {
+            final int move = moveOrderer.selectMove(legalMoves, moveCount, i, 0);
+            if (i == 0)
+                bestMove = move; // The first move to finish always raises alpha, this only matters if stopped before
             board.makeMove(move);
-            final int score = -negamax(board, maxDepth - 1, -beta, -alpha);
+            final int score = principalVariationSearch(board, maxDepth - 1, alpha, beta, 1, i == 0, 0);
             board.undoMove();
-            workDone += MAX_WORK/legalMoves.size();
-            updateProgress(workDone, MAX_WORK);
+            if (stopped.get())
+                break;
+            if (progressListener != null)
+                progressListener.accept((i + 1) / (double) moveCount);
             if (score > alpha) {
                 alpha = score;
                 bestMove = move;
+                updatePrincipalVariation(0, move);
             }
+            if (alpha >= beta)
+                break; // Only happens with an aspiration window, which is widened before searching the rest
         }
+        rootScore = alpha;
         return bestMove;
     }
 
     // The main class simply evaluates scores based on alpha-beta pruned mini-max.
     @SuppressWarnings("Duplicates")
-    private int negamax(final Board board, final int depth, int alpha, int beta) {
+    private int negamax(final Board board, final int depth, int alpha, int beta, final int ply) {
+        pvLength[ply] = 0;
+        if (depth == 0)
+            return quiescence(board, alpha, beta, ply);
+
+        statistics.nodes++;
+        if (limitsArmed)
+            checkLimits();
+        if (stopped.get())
+            return 0;
+
+        // Mate distance pruning: no line from here can mate faster than mating on the next move, or be mated slower
+        // than being mated on the move after. Once those bounds leave no room between alpha and beta, a mate closer to
+        // the root has already been found and the rest of the node can't change the result.
+        alpha = Math.max(alpha, -Evaluator.CHECKMATE_VALUE + ply);
+        beta = Math.min(beta, Evaluator.CHECKMATE_VALUE - ply - 1);
+        if (alpha >= beta)
+            return alpha;
+
         int alphaOrig = alpha;
-        HashEntry hashEntry = transpositionTable.get(board.getZobristHash());
-        if(hashEntry != null && hashEntry.getDepth() >= depth) {
-            switch(hashEntry.getType()) {
+        final long hashEntry = transpositionTable.probe(board.getZobristHash());
+        statistics.hashProbes++;
+        if(hashEntry != TranspositionTable.NO_ENTRY)
+            statistics.hashHits++;
+        final int entryScore = hashEntry == TranspositionTable.NO_ENTRY ? 0 :
+                fromTranspositionScore(TranspositionTable.getScore(hashEntry), ply);
+        // A cutoff would cut the line short, so a node on the principal variation searches its way to a mate itself.
+        // Mate distance pruning keeps that cheap, and the reported line then always plays out the mate in full.
+        if(hashEntry != TranspositionTable.NO_ENTRY && TranspositionTable.getDepth(hashEntry) >= depth &&
+                (beta - alpha == 1 || !Evaluator.isMateScore(entryScore))) {
+            switch(TranspositionTable.getType(hashEntry)) {
                 case EXACT:
-                    return hashEntry.getScore();
+                    statistics.hashCutoffs++;
+                    return entryScore;
                 case LOWER:
-                    alpha = Math.max(alpha, hashEntry.getScore());
+                    alpha = Math.max(alpha, entryScore);
                     break;
                 case UPPER:
-                    beta = Math.min(beta, hashEntry.getScore());
+                    beta = Math.min(beta, entryScore);
                     break;
             }
 
-            if(alpha >= beta)
-                return hashEntry.getScore();
+            if(alpha >= beta) {
+                statistics.hashCutoffs++;
+                return entryScore;
+            }
         }
 
-        // Experimenting with end-game evaluation
-        /*if(legalMoves.isEmpty()) {
-            return Evaluator.evaluateEndGame(board);
-        } else */
-        if (depth == 0) {
-            return Evaluator.evaluate(board);
+        final boolean inCheck = !board.isKingSafe();
+
+        // Passing the turn is almost always worse than the best move, so if the opponent can't get below beta even
+        // after a pass, this node would be cut off anyway. That fails in zugzwang, where every move makes things worse,
+        // which is common once a team only has pawns left, so it's not tried then. Passing in check would be illegal,
+        // and two passes in a row would only search the same position shallower.
+        if (options.isNullMovePruning() && beta - alpha == 1 && depth >= NULL_MOVE_MIN_DEPTH && !inCheck &&
+                board.peekLastPackedMove() != PackedMove.NONE && hasPieces(board) &&
+                Evaluator.evaluate(board) >= beta) {
+            final int reduction = depth >= DEEP_NULL_MOVE_DEPTH ? DEEP_NULL_MOVE_REDUCTION : NULL_MOVE_REDUCTION;
+            board.makeNullMove();
+            final int score = -negamax(board, depth - 1 - reduction, -beta, -beta + 1, ply + 1);
+            board.undoNullMove();
+            if (stopped.get())
+                return 0;
+            if (score >= beta) {
+                statistics.nullMoveCutoffs++;
+                return beta;
+            }
         }
 
-        final List<Move> legalMoves = board.getLegalMoves(board.getTurn());
+        final int[] legalMoves = moveBuffers[ply];
+        final int moveCount = board.getLegalMoves(board.getTurn(), legalMoves);
+        if (moveCount == 0)
+            return Evaluator.evaluateEndGame(board, ply); // Exact at any depth, and cheaper to find again than to store
+        moveOrderer.scoreMoves(board, legalMoves, moveCount, ply, hashEntry == TranspositionTable.NO_ENTRY ?
+                PackedMove.NONE : TranspositionTable.getBestMove(hashEntry));
 
-        int score = Integer.MIN_VALUE;
-        for(int i = 0; i < legalMoves.size(); i++) {
-            Move move = legalMoves.get(i);
+        int bestMove = PackedMove.NONE;
+        for(int i = 0; i < moveCount; i++) {
+            final int move = moveOrderer.selectMove(legalMoves, moveCount, i, ply);
             board.makeMove(move);
-            score = -negamax(board, depth - 1, -beta, -alpha);
+            final int score = principalVariationSearch(board, depth - 1, alpha, beta, ply + 1, i == 0,
+                    lateMoveReduction(move, i, depth, inCheck));
             board.undoMove();
-            if (score >= beta) return beta;
-            if (score > alpha) alpha = score;
+            if (stopped.get())
+                return 0; // The score is unreliable, so it mustn't reach the transposition table
+            if (score > alpha) {
+                // The line is kept even when the move cuts off, as mate distance pruning can lower beta to the score
+                // of a mate, and the parent takes that line as its best when the mate beats its own alpha
+                bestMove = move;
+                updatePrincipalVariation(ply, bestMove);
+                if (score >= beta) {
+                    statistics.betaCutoffs++;
+                    if (i == 0)
+                        statistics.firstMoveCutoffs++;
+                    moveOrderer.cutoff(board.getTurn(), move, depth, ply);
+                    transpositionTable.store(board.getZobristHash(), toTranspositionScore(beta, ply), depth,
+                            EntryType.LOWER, move);
+                    return beta;
+                }
+                alpha = score;
+            }
         }
 
-        EntryType type;
-        if (score <= alphaOrig) {
-            type = EntryType.UPPER;
-        } else if(score >= beta) {
-            type = EntryType.LOWER;
-        } else {
-            type = EntryType.EXACT;
+        // Cutoffs have already returned, so the score is either exact or no move beat alpha and it is an upper bound
+        final EntryType type = alpha > alphaOrig ? EntryType.EXACT : EntryType.UPPER;
+        transpositionTable.store(board.getZobristHash(), toTranspositionScore(alpha, ply), depth, type, bestMove);
+        return alpha;
+    }
+
+    /**
+     * Searches a child of the current node, returning its score from the current node's side. The first child gets the
+     * full window, the rest a null window, and a child scoring between alpha and beta is searched again with the full
+     * window. In a node that already has a null window the two windows are the same, so re-searches never happen there.
+     * A reduced child is first searched with the null window to the reduced depth, and only searched to the full depth
+     * if it beats alpha.
+     * @param ply The ply of the child.
+     * @param firstMove If the child is the first move searched.
+     * @param reduction How many plies shallower to search the child first, from lateMoveReduction.
+     */
+    private int principalVariationSearch(final Board board, final int depth, final int alpha, final int beta,
+                                         final int ply, final boolean firstMove, final int reduction) {
+        if (firstMove)
+            return -negamax(board, depth, -beta, -alpha, ply);
+
+        if (reduction > 0) {
+            statistics.reducedMoves++;
+            final int score = -negamax(board, depth - reduction, -alpha - 1, -alpha, ply);
+            if (score <= alpha || stopped.get())
+                return score;
+            statistics.reductionReSearches++;
+        }
+
+        final int score = -negamax(board, depth, -alpha - 1, -alpha, ply);
+        if (score > alpha && score < beta && !stopped.get())
+            return -negamax(board, depth, -beta, -alpha, ply);
+        return score;
+    }
+
+    /**
+     * Converts a mate score from its distance to the root to its distance to the current position, for storing in the
+     * transposition table. Other scores are stored as they are.
+     */
+    private static int toTranspositionScore(final int score, final int ply) {
+        if (score >= Evaluator.MATE_BOUND)
+            return score + ply;
+        if (score <= -Evaluator.MATE_BOUND)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * Converts a mate score read from the transposition table back to its distance to the root.
+     */
+    private static int fromTranspositionScore(final int score, final int ply) {
+        if (score >= Evaluator.MATE_BOUND)
+            return score - ply;
+        if (score <= -Evaluator.MATE_BOUND)
+            return score + ply;
+        return score;
+    }
+
+    /**
+     * Decides how much shallower to search a move first. Only quiet moves ordered late are reduced, as captures,
+     * promotions, checks and escapes from check are too likely to change the score. Must be called with the move made.
+     * @param move The move, already made on the board.
+     * @param index The index the move was searched at, in the order of the move orderer.
+     * @param depth The remaining depth of the node the move was made from.
+     * @param inCheck If the team that made the move was in check before it.
+     * @return The reduction in plies, 0 if the move isn't reduced.
+     */
+    private int lateMoveReduction(final int move, final int index, final int depth, final boolean inCheck) {
+        if (!options.isLateMoveReductions() || index < LATE_MOVE_INDEX || depth < LATE_MOVE_MIN_DEPTH || inCheck ||
+                PackedMove.isAttackingMove(move) || PackedMove.isPromotion(move) || !board.isKingSafe())
+            return 0;
+        return index >= VERY_LATE_MOVE_INDEX && depth >= VERY_LATE_MOVE_MIN_DEPTH ? 2 : 1;
+    }
+
+    /**
+     * @return If the team to move has a piece other than its king and pawns. With only those, zugzwang is common.
+     */
+    private static boolean hasPieces(final Board board) {
+        final Team team = board.getTurn();
+        return (board.getTeamBitboard(team) & ~board.getPieceBitboard(team, Piece.PieceType.PAWN) &
+                ~board.getPieceBitboard(team, Piece.PieceType.KING)) != Bitboard.EMPTY;
+    }
+
+    /**
+     * Checks the best line of a mate score by playing it out on a copy of the board. It must be made of legal moves,
+     * be exactly as long as the mate, and leave the side to move checkmated. Only called by an assertion, so it costs
+     * nothing unless assertions are enabled.
+     */
+    private boolean isMatingLine(final int score, final int[] line) {
+        final int matePlies = Evaluator.CHECKMATE_VALUE - Math.abs(score);
+        if (line.length != matePlies)
+            return false;
+
+        final Board position = board.copy();
+        final int[] moves = new int[Board.MAX_MOVES];
+        for (final int move : line) {
+            final int moveCount = position.getLegalMoves(position.getTurn(), moves);
+            if (!contains(moves, moveCount, move))
+                return false;
+            position.makeMove(move);
         }
+        return position.getLegalMoves(position.getTurn(), moves) == 0 && !position.isKingSafe();
+    }
+
+    private static boolean contains(final int[] moves, final int moveCount, final int move) {
+        for (int i = 0; i < moveCount; i++)
+            if (moves[i] == move)
+                return true;
+        return false;
+    }
 
+    /**
+     * Makes the best line from a ply the move followed by the best line from the ply below.
+     */
+    private void updatePrincipalVariation(final int ply, final int move) {
+        pvTable[ply][0] = move;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet, so the board is never evaluated in the middle
+     * of an exchange. The side to move may stand pat on the static evaluation instead of capturing, as it's assumed
+     * that some quiet move would hold at least that score. Captures that lose material by static exchange evaluation
+     * are pruned, as standing pat would score better than a sequence that gives material away.
+     *
+     * A side in check has no quiet move to fall back on, so it can't stand pat, and every evasion is searched instead.
+     * That way checks at the horizon aren't mistaken for quiet positions, and checkmates there are found.
+     *
+     * Implemented from www.chessprogramming.org/Quiescence_Search and
+     * www.chessprogramming.org/Static_Exchange_Evaluation
+     */
+    private int quiescence(final Board board, int alpha, final int beta, final int ply) {
+        pvLength[ply] = 0;
+        statistics.nodes++;
+        statistics.quiescenceNodes++;
+        if (limitsArmed)
+            checkLimits();
+        if (stopped.get())
+            return 0;
+
+        final boolean inCheck = !board.isKingSafe();
+        final int[] moves = moveBuffers[ply];
+        final int moveCount;
+        if (inCheck) {
+            if (ply == MAX_PLY)
+                return Evaluator.evaluate(board); // Out of move buffers, which only a very long sequence can reach
+            moveCount = board.getLegalMoves(board.getTurn(), moves);
+            if (moveCount == 0)
+                return Evaluator.evaluateEndGame(board, ply);
+        } else {
+            final int standPat = Evaluator.evaluate(board);
+            if (standPat >= beta)
+                return beta;
+            if (ply == MAX_PLY)
+                return standPat; // Out of move buffers, which only a very long capture sequence can reach
+            if (standPat > alpha)
+                alpha = standPat;
+            moveCount = board.getLegalCaptures(board.getTurn(), moves);
+        }
+        moveOrderer.scoreMoves(board, moves, moveCount, ply, PackedMove.NONE);
 
-        transpositionTable.put(board.getZobristHash(), new HashEntry(score, depth, type));
+        for (int i = 0; i < moveCount; i++) {
+            final int move = moveOrderer.selectMove(moves, moveCount, i, ply);
+            if (!inCheck && moveOrderer.isLosingCapture(i, ply))
+                break; // The losing captures are ordered last, so every capture left loses material too
+            board.makeMove(move);
+            final int score = -quiescence(board, -beta, -alpha, ply + 1);
+            board.undoMove();
+            if (stopped.get())
+                return 0;
+            if (score >= beta)
+                return beta;
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move); // Keeps the line of a mate found here whole
+            }
+        }
         return alpha;
     }
+
+    /**
+     * Receives the results of each iteration as the search deepens, on the searching thread.
+     */
+    interface IterationListener {
+        void iterationCompleted(int depth, int score, int[] principalVariation);
+
+        void progressUpdated(double progress);
+    }
 }
@@ -0,0 +1,292 @@
+package engine.ai;
+
+import engine.board.Board;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The entry point for searching positions. An engine owns a transposition table and the search threads, and keeps the
+ * table between searches so later searches of the same game benefit from earlier ones.
+ *
+ * An engine runs one search at a time, and calls from several threads are queued. Separate engines share nothing, so
+ * any number of them can search in parallel.
+ *
+ * The engine keeps totals of the statistics of its searches, which can be read through the SearchEngineMXBean
+ * methods, or from a JMX client once registerMBean has been called. They're kept apart from the search itself, so
+ * reading them never waits for a running search.
+ */
+public class SearchEngine implements SearchEngineMXBean {
+    private static final AtomicInteger ENGINE_COUNT = new AtomicInteger(); // Numbers the registered engines
+
+    private TranspositionTable transpositionTable;
+    private volatile int hashSize;
+    private volatile SearchOptions options = SearchOptions.DEFAULT;
+    private volatile LazySmpSearch search;
+    private volatile AtomicBoolean stopped = new AtomicBoolean(false); // Stops the running search
+    private ObjectName mBeanName; // The name the engine is registered under, or null if it isn't registered
+
+    // The totals of every search since the statistics were last reset, guarded by totals
+    private final SearchStatistics totals = new SearchStatistics();
+    private long searchCount;
+    private long totalTime;
+    private SearchResult lastResult;
+
+    public SearchEngine() {
+        this(TranspositionTable.DEFAULT_MEGABYTES, 1);
+    }
+
+    /**
+     * @param hashSize The size of the transposition table in megabytes.
+     * @param threadCount The number of threads each search runs on, one or more.
+     */
+    public SearchEngine(final int hashSize, final int threadCount) {
+        this.transpositionTable = new TranspositionTable(hashSize);
+        this.hashSize = hashSize;
+        this.search = new LazySmpSearch(threadCount);
+    }
+
+    public SearchResult search(final Board position, final SearchLimits limits) {
+        return search(position, limits, null);
+    }
+
+    public SearchResult search(final Board position, final SearchLimits limits, final SearchListener listener) {
+        return search(position, limits, listener, new AtomicBoolean(false));
+    }
+
+    /**
+     * Searches the position for the best move. The position itself isn't modified, the search runs on a copy.
+     * @param position The position to search.
+     * @param limits The depth, time and node budget of the search.
+     * @param listener Notified of each completed iteration and the progress of the search, may be null.
+     * @param stopped Setting this flag from another thread stops the search, which is useful when the stop may be
+     *                requested before the search has started. stop() covers the other cases. The search uses the flag
+     *                to stop itself too: it's set when a time or node budget runs out, and always set by the time this
+     *                method returns, as that's what stops the helper threads. Each search needs a new flag.
+     * @return The result of the last completed iteration.
+     */
+    public synchronized SearchResult search(final Board position, final SearchLimits limits,
+                                            final SearchListener listener, final AtomicBoolean stopped) {
+        this.stopped = stopped;
+        transpositionTable.newSearch();
+        try {
+            final SearchResult result = search.search(position.copy(), limits, options, transpositionTable, stopped,
+                    listener);
+            addToTotals(result);
+            return result;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the search threads", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("A search thread failed", e.getCause());
+        }
+    }
+
+    private void addToTotals(final SearchResult result) {
+        synchronized (totals) {
+            totals.add(result.getStatistics());
+            searchCount++;
+            totalTime += result.getTime();
+            lastResult = result;
+        }
+    }
+
+    /**
+     * Stops the running search, which returns its best move as soon as possible. Does nothing if no search is running.
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    /**
+     * Replaces the transposition table with an empty one of the specified size. Waits for the running search to finish.
+     * @param megabytes The size of the transposition table in megabytes.
+     */
+    public synchronized void setHashSize(final int megabytes) {
+        transpositionTable = new TranspositionTable(megabytes);
+        hashSize = megabytes;
+    }
+
+    /**
+     * Sets the number of threads to search with. Waits for the running search to finish.
+     * @param threadCount The number of threads, one or more.
+     */
+    public synchronized void setThreadCount(final int threadCount) {
+        final LazySmpSearch search = new LazySmpSearch(threadCount);
+        this.search.shutdown();
+        this.search = search;
+    }
+
+    /**
+     * Switches the selective parts of the search on or off. Waits for the running search to finish.
+     * @param options The switches to search with from the next search on.
+     */
+    public synchronized void setOptions(final SearchOptions options) {
+        this.options = options;
+    }
+
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    @Override
+    public int getHashSize() {
+        return hashSize;
+    }
+
+    @Override
+    public int getThreadCount() {
+        return search.getThreadCount();
+    }
+
+    /**
+     * Empties the transposition table, so nothing from earlier games affects the next search.
+     */
+    public synchronized void clearHash() {
+        transpositionTable.clear();
+    }
+
+    /**
+     * @return The statistics of every search since the statistics were last reset, with the counters added together.
+     */
+    public SearchStatistics getStatistics() {
+        synchronized (totals) {
+            return totals.copy();
+        }
+    }
+
+    @Override
+    public void resetStatistics() {
+        synchronized (totals) {
+            totals.clear();
+            searchCount = 0;
+            totalTime = 0;
+            lastResult = null;
+        }
+    }
+
+    @Override
+    public long getSearchCount() {
+        synchronized (totals) {
+            return searchCount;
+        }
+    }
+
+    @Override
+    public long getTotalNodes() {
+        synchronized (totals) {
+            return totals.getNodes();
+        }
+    }
+
+    @Override
+    public long getTotalTime() {
+        synchronized (totals) {
+            return totalTime;
+        }
+    }
+
+    @Override
+    public long getNodesPerSecond() {
+        synchronized (totals) {
+            return totals.getNodes() * 1000 / Math.max(1, totalTime);
+        }
+    }
+
+    @Override
+    public double getHashHitRate() {
+        synchronized (totals) {
+            return totals.getHashHitRate();
+        }
+    }
+
+    @Override
+    public double getBetaCutoffRate() {
+        synchronized (totals) {
+            return totals.getBetaCutoffRate();
+        }
+    }
+
+    @Override
+    public double getFirstMoveCutoffRate() {
+        synchronized (totals) {
+            return totals.getFirstMoveCutoffRate();
+        }
+    }
+
+    @Override
+    public double getQuiescenceNodeRate() {
+        synchronized (totals) {
+            return totals.getQuiescenceNodeRate();
+        }
+    }
+
+    @Override
+    public int getLastDepth() {
+        synchronized (totals) {
+            return lastResult == null ? 0 : lastResult.getDepth();
+        }
+    }
+
+    @Override
+    public long getLastNodes() {
+        synchronized (totals) {
+            return lastResult == null ? 0 : lastResult.getNodes();
+        }
+    }
+
+    @Override
+    public long getLastTime() {
+        synchronized (totals) {
+            return lastResult == null ? 0 : lastResult.getTime();
+        }
+    }
+
+    @Override
+    public double getLastEffectiveBranchingFactor() {
+        synchronized (totals) {
+            return lastResult == null ? 0 : lastResult.getStatistics().getEffectiveBranchingFactor();
+        }
+    }
+
+    /**
+     * Registers the engine with the platform MBean server, under engine.ai:type=SearchEngine,id=[number]. The engine is
+     * unregistered again by shutdown.
+     * @return The name the engine was registered under.
+     */
+    public synchronized ObjectName registerMBean() {
+        if (mBeanName != null)
+            return mBeanName;
+        try {
+            final ObjectName name = new ObjectName("engine.ai:type=SearchEngine,id=" + ENGINE_COUNT.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            mBeanName = name;
+            return name;
+        } catch (final JMException e) {
+            throw new IllegalStateException("Couldn't register the search engine MBean", e);
+        }
+    }
+
+    /**
+     * Stops the search threads, and unregisters the engine's MBean if it was registered. The engine can't be used
+     * afterwards.
+     */
+    public void shutdown() {
+        stop();
+        search.shutdown();
+        synchronized (this) {
+            if (mBeanName == null)
+                return;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+            } catch (final JMException e) {
+                // Already unregistered, which is all that's wanted
+            }
+            mBeanName = null;
+        }
+    }
+}
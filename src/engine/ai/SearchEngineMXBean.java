@@ -0,0 +1,53 @@
+package engine.ai;
+
+/**
+ * The management interface of a search engine, so a running engine can be watched from JConsole or any other JMX
+ * client. The totals cover every search since the engine was created or its statistics were last reset, the last
+ * search values only the most recent completed search.
+ *
+ * See SearchEngine.registerMBean
+ */
+public interface SearchEngineMXBean {
+
+    /**
+     * @return The size of the transposition table in megabytes.
+     */
+    int getHashSize();
+
+    int getThreadCount();
+
+    long getSearchCount();
+
+    long getTotalNodes();
+
+    /**
+     * @return The total time spent searching in milliseconds.
+     */
+    long getTotalTime();
+
+    /**
+     * @return The nodes searched per second over all searches.
+     */
+    long getNodesPerSecond();
+
+    double getHashHitRate();
+
+    double getBetaCutoffRate();
+
+    double getFirstMoveCutoffRate();
+
+    double getQuiescenceNodeRate();
+
+    int getLastDepth();
+
+    long getLastNodes();
+
+    /**
+     * @return The time the last search took in milliseconds.
+     */
+    long getLastTime();
+
+    double getLastEffectiveBranchingFactor();
+
+    void resetStatistics();
+}
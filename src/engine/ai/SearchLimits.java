@@ -0,0 +1,72 @@
+package engine.ai;
+
+/**
+ * The budget a search may spend before it has to return a move. A search deepens one ply at a time until the depth is
+ * reached or the time or node budget runs out, whichever comes first. A limit of zero means no limit, but at least one
+ * of the limits must be set.
+ */
+public final class SearchLimits {
+    public static final int MAX_DEPTH = NegamaxAlphaBetaTransposition.MAX_PLY - 2; // Leaves room for deeper helpers
+
+    private final int depth; // The deepest iteration to search
+    private final long moveTime; // The wall-clock budget in milliseconds
+    private final long nodes; // The node budget of the calling thread
+
+    /**
+     * @param depth The maximum depth to search to, or zero for no depth limit.
+     * @param moveTime The maximum time to search for in milliseconds, or zero for no time limit.
+     * @param nodes The maximum number of nodes to search, or zero for no node limit.
+     */
+    public SearchLimits(final int depth, final long moveTime, final long nodes) {
+        if (depth < 0 || depth > MAX_DEPTH)
+            throw new IllegalArgumentException("The depth must be between 0 and " + MAX_DEPTH);
+        if (moveTime < 0 || nodes < 0)
+            throw new IllegalArgumentException("Limits cannot be negative");
+        if (depth == 0 && moveTime == 0 && nodes == 0)
+            throw new IllegalArgumentException("At least one limit must be set");
+
+        this.depth = depth;
+        this.moveTime = moveTime;
+        this.nodes = nodes;
+    }
+
+    public static SearchLimits depth(final int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits moveTime(final long moveTime) {
+        return new SearchLimits(0, moveTime, 0);
+    }
+
+    public static SearchLimits nodes(final long nodes) {
+        return new SearchLimits(0, 0, nodes);
+    }
+
+    /**
+     * @return The deepest iteration to search, MAX_DEPTH if the depth isn't limited.
+     */
+    public int getDepth() {
+        return depth == 0 ? MAX_DEPTH : depth;
+    }
+
+    public long getMoveTime() {
+        return moveTime;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean hasTimeLimit() {
+        return moveTime > 0;
+    }
+
+    public boolean hasNodeLimit() {
+        return nodes > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits{depth=" + depth + ", moveTime=" + moveTime + ", nodes=" + nodes + "}";
+    }
+}
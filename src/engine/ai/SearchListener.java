@@ -0,0 +1,22 @@
+package engine.ai;
+
+/**
+ * Receives updates from a running search. The methods are called on the searching thread, so they should return
+ * quickly. Both do nothing by default, so only the updates of interest need implementing.
+ */
+public interface SearchListener {
+
+    /**
+     * Called each time the search completes an iteration.
+     * @param result The result of the completed iteration.
+     */
+    default void iterationCompleted(final SearchResult result) {
+    }
+
+    /**
+     * Called as the search works through the root moves.
+     * @param progress An estimate of the progress through the search, from 0 to 1.
+     */
+    default void progressUpdated(final double progress) {
+    }
+}
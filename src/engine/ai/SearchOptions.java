@@ -0,0 +1,59 @@
+package engine.ai;
+
+/**
+ * Switches for the parts of the search that only make it faster: the selective parts, which search some moves less
+ * deeply than others, and aspiration windows. Turning one off makes it possible to measure what it gains, or to check
+ * that a change in the search's results is caused by it.
+ *
+ * The selective parts are on by default. Aspiration windows are off, as principal variation search already searches
+ * every root move but the first with a null window, leaving them no measurable saving on the benchmark suite.
+ */
+public final class SearchOptions {
+    public static final SearchOptions DEFAULT = new SearchOptions(true, true, false);
+
+    private final boolean nullMovePruning;
+    private final boolean lateMoveReductions;
+    private final boolean aspirationWindows;
+
+    /**
+     * @param nullMovePruning If a position is cut off when passing the turn still scores at least beta.
+     * @param lateMoveReductions If quiet moves ordered late are first searched to a reduced depth.
+     * @param aspirationWindows If each iteration searches the root with a window around the previous iteration's score.
+     */
+    public SearchOptions(final boolean nullMovePruning, final boolean lateMoveReductions,
+                         final boolean aspirationWindows) {
+        this.nullMovePruning = nullMovePruning;
+        this.lateMoveReductions = lateMoveReductions;
+        this.aspirationWindows = aspirationWindows;
+    }
+
+    public SearchOptions withNullMovePruning(final boolean nullMovePruning) {
+        return new SearchOptions(nullMovePruning, lateMoveReductions, aspirationWindows);
+    }
+
+    public SearchOptions withLateMoveReductions(final boolean lateMoveReductions) {
+        return new SearchOptions(nullMovePruning, lateMoveReductions, aspirationWindows);
+    }
+
+    public SearchOptions withAspirationWindows(final boolean aspirationWindows) {
+        return new SearchOptions(nullMovePruning, lateMoveReductions, aspirationWindows);
+    }
+
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public boolean isAspirationWindows() {
+        return aspirationWindows;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchOptions{nullMovePruning=" + nullMovePruning + ", lateMoveReductions=" + lateMoveReductions +
+                ", aspirationWindows=" + aspirationWindows + "}";
+    }
+}
@@ -0,0 +1,114 @@
+package engine.ai;
+
+import engine.board.Move;
+import engine.board.PackedMove;
+
+/**
+ * The outcome of a search, or of one of its completed iterations.
+ */
+public final class SearchResult {
+    private final int[] principalVariation; // The best line of packed moves, empty if there are no legal moves
+    private final int score; // The score of the best move, relative to the side to move
+    private final int depth; // The depth of the last completed iteration
+    private final long nodes; // The number of nodes searched by all threads
+    private final long time; // The time taken in milliseconds
+    private final SearchStatistics statistics; // The counters of all threads added together
+
+    SearchResult(final int[] principalVariation, final int score, final int depth, final long time,
+                 final SearchStatistics statistics) {
+        this.principalVariation = principalVariation;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = statistics.getNodes();
+        this.time = time;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return The best packed move, or PackedMove.NONE if there are no legal moves.
+     */
+    public int getBestMove() {
+        return principalVariation.length == 0 ? PackedMove.NONE : principalVariation[0];
+    }
+
+    /**
+     * @return The best move, or null if there are no legal moves.
+     */
+    public Move getMove() {
+        return principalVariation.length == 0 ? null : new Move(principalVariation[0]);
+    }
+
+    /**
+     * The principal variation is the line the search expects to be played, each side making the move it found best.
+     * The line can be shorter than the depth, as it ends where a transposition table entry cut the search short.
+     * @return The packed moves of the line, starting with the best move. Empty if there are no legal moves.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * @return The principal variation in coordinate notation, separated by spaces.
+     */
+    public String getPrincipalVariationString() {
+        final StringBuilder builder = new StringBuilder();
+        for (final int move : principalVariation) {
+            if (builder.length() > 0)
+                builder.append(' ');
+            builder.append(PackedMove.toString(move));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return The score in centipawns, or for a forced checkmate CHECKMATE_VALUE less the plies to mate, negated when
+     * the side to move is the one getting mated.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return If the search found a forced checkmate, for either side.
+     */
+    public boolean isMate() {
+        return Evaluator.isMateScore(score);
+    }
+
+    /**
+     * @return The number of moves until checkmate, counting only the moves of the side to move, as given by UCI.
+     * Negative when the side to move is the one getting mated. Only meaningful when isMate is true.
+     */
+    public int getMateMoves() {
+        return score > 0 ? (Evaluator.CHECKMATE_VALUE - score + 1) / 2 : -(Evaluator.CHECKMATE_VALUE + score) / 2;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, time);
+    }
+
+    /**
+     * @return The counters of the search, with every thread's counters added together.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{pv=" + getPrincipalVariationString() + ", score=" + score + ", depth=" + depth +
+                ", nodes=" + nodes + ", time=" + time + "}";
+    }
+}
@@ -0,0 +1,203 @@
+package engine.ai;
+
+import java.util.Arrays;
+
+/**
+ * Counters describing the work done by a search, for tuning the search depth, the size of the transposition table and
+ * the move ordering. Each search thread counts into its own instance with plain increments, so counting costs next to
+ * nothing, and the instances are added together when the search reports its result. The counters of a running helper
+ * thread are read without synchronization, so the totals of a result reported mid search are only a snapshot.
+ *
+ * The iteration nodes and times are those of the calling thread only, as the helpers search different depths.
+ */
+public final class SearchStatistics {
+    long nodes; // Every node searched, including quiescence nodes
+    long quiescenceNodes;
+    long hashProbes; // Transposition table lookups
+    long hashHits; // Lookups that found an entry for the position
+    long hashCutoffs; // Hits that ended the search of a node without searching any of its moves
+    long betaCutoffs; // Nodes where a move scored at least beta, ending the search of the node
+    long firstMoveCutoffs; // Beta cutoffs caused by the first move searched, which measures the move ordering
+    long nullMoveCutoffs; // Nodes cut off by null move pruning, without searching any of their moves
+    long reducedMoves; // Late quiet moves searched to a reduced depth
+    long reductionReSearches; // Reduced moves that beat alpha, and had to be searched again to the full depth
+    long aspirationReSearches; // Root searches repeated with a wider window, after scoring outside the window
+
+    private final long[] iterationNodes = new long[NegamaxAlphaBetaTransposition.MAX_PLY + 1]; // Indexed by depth
+    private final long[] iterationTimes = new long[NegamaxAlphaBetaTransposition.MAX_PLY + 1]; // In nanoseconds
+    private int completedDepth;
+
+    SearchStatistics() {
+    }
+
+    /**
+     * Records the nodes and time spent by an iteration of the calling thread.
+     */
+    void iterationCompleted(final int depth, final long nodes, final long time) {
+        iterationNodes[depth] = nodes;
+        iterationTimes[depth] = time;
+        completedDepth = depth;
+    }
+
+    /**
+     * Adds the counters of another thread to this instance. The iterations aren't added.
+     */
+    void add(final SearchStatistics other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        hashProbes += other.hashProbes;
+        hashHits += other.hashHits;
+        hashCutoffs += other.hashCutoffs;
+        betaCutoffs += other.betaCutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        nullMoveCutoffs += other.nullMoveCutoffs;
+        reducedMoves += other.reducedMoves;
+        reductionReSearches += other.reductionReSearches;
+        aspirationReSearches += other.aspirationReSearches;
+    }
+
+    SearchStatistics copy() {
+        final SearchStatistics copy = new SearchStatistics();
+        copy.add(this);
+        System.arraycopy(iterationNodes, 0, copy.iterationNodes, 0, iterationNodes.length);
+        System.arraycopy(iterationTimes, 0, copy.iterationTimes, 0, iterationTimes.length);
+        copy.completedDepth = completedDepth;
+        return copy;
+    }
+
+    void clear() {
+        nodes = quiescenceNodes = hashProbes = hashHits = hashCutoffs = betaCutoffs = firstMoveCutoffs = 0;
+        nullMoveCutoffs = reducedMoves = reductionReSearches = aspirationReSearches = 0;
+        Arrays.fill(iterationNodes, 0);
+        Arrays.fill(iterationTimes, 0);
+        completedDepth = 0;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    public long getHashProbes() {
+        return hashProbes;
+    }
+
+    public long getHashHits() {
+        return hashHits;
+    }
+
+    public long getHashCutoffs() {
+        return hashCutoffs;
+    }
+
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    public long getNullMoveCutoffs() {
+        return nullMoveCutoffs;
+    }
+
+    public long getReducedMoves() {
+        return reducedMoves;
+    }
+
+    public long getReductionReSearches() {
+        return reductionReSearches;
+    }
+
+    public long getAspirationReSearches() {
+        return aspirationReSearches;
+    }
+
+    /**
+     * @return The fraction of transposition table lookups that found an entry.
+     */
+    public double getHashHitRate() {
+        return ratio(hashHits, hashProbes);
+    }
+
+    /**
+     * @return The fraction of nodes outside quiescence search that ended in a beta cutoff.
+     */
+    public double getBetaCutoffRate() {
+        return ratio(betaCutoffs, nodes - quiescenceNodes);
+    }
+
+    /**
+     * @return The fraction of beta cutoffs caused by the first move searched. Good move ordering keeps this above 0.9.
+     */
+    public double getFirstMoveCutoffRate() {
+        return ratio(firstMoveCutoffs, betaCutoffs);
+    }
+
+    /**
+     * @return The fraction of nodes searched by quiescence search.
+     */
+    public double getQuiescenceNodeRate() {
+        return ratio(quiescenceNodes, nodes);
+    }
+
+    /**
+     * @return The fraction of reduced moves that had to be searched again, which should stay low if reductions are
+     * only applied to moves unlikely to matter.
+     */
+    public double getReductionReSearchRate() {
+        return ratio(reductionReSearches, reducedMoves);
+    }
+
+    /**
+     * @return The depth of the last iteration the calling thread completed.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @param depth The depth of a completed iteration.
+     * @return The nodes the calling thread searched in that iteration alone.
+     */
+    public long getIterationNodes(final int depth) {
+        return iterationNodes[depth];
+    }
+
+    /**
+     * @param depth The depth of a completed iteration.
+     * @return The time the iteration took in milliseconds.
+     */
+    public long getIterationTime(final int depth) {
+        return iterationTimes[depth] / 1_000_000;
+    }
+
+    /**
+     * The effective branching factor is how many times more nodes the last iteration took than the one before it,
+     * which is what the cost of searching one ply deeper comes down to.
+     * @return The effective branching factor, or 0 before the second iteration has completed.
+     */
+    public double getEffectiveBranchingFactor() {
+        if (completedDepth < 2)
+            return 0;
+        return ratio(iterationNodes[completedDepth], iterationNodes[completedDepth - 1]);
+    }
+
+    private static double ratio(final long count, final long total) {
+        return total == 0 ? 0 : count / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchStatistics{nodes=%d, quiescenceNodes=%.1f%%, hashHitRate=%.1f%%, " +
+                        "hashCutoffs=%d, betaCutoffRate=%.1f%%, firstMoveCutoffRate=%.1f%%, nullMoveCutoffs=%d, " +
+                        "reducedMoves=%d, reductionReSearchRate=%.1f%%, aspirationReSearches=%d, branchingFactor=%.2f}",
+                nodes, getQuiescenceNodeRate() * 100, getHashHitRate() * 100, hashCutoffs,
+                getBetaCutoffRate() * 100, getFirstMoveCutoffRate() * 100, nullMoveCutoffs, reducedMoves,
+                getReductionReSearchRate() * 100, aspirationReSearches, getEffectiveBranchingFactor());
+    }
+}
@@ -0,0 +1,157 @@
+package engine.ai;
+
+import engine.board.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size transposition table, backed by a single long array so it never grows and never boxes its keys or
+ * entries. Entries are grouped into buckets of four, which together fill a 64 byte cache line. When a bucket is full,
+ * the entry searched to the shallowest depth is replaced, with entries left over from earlier searches counting as
+ * shallower the older they are.
+ *
+ * Each entry is two longs: the zobrist hash XORed with the data, and the data itself. An entry only matches a probe if
+ * the two still agree, so an entry torn by two threads writing at once reads as a miss rather than as corrupt data,
+ * and the table can be shared between threads without locking.
+ *
+ * Implemented from www.chessprogramming.org/Transposition_Table and www.chessprogramming.org/Shared_Hash_Table
+ */
+public class TranspositionTable {
+    public static final long NO_ENTRY = 0L; // Never a stored entry, as stored entries always have a type
+
+    private static final int BUCKET_SIZE = 4; // Entries per bucket
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+    public static final int DEFAULT_MEGABYTES = 64;
+    public static final int MAX_MEGABYTES = 8192; // The largest power of two table a single long array can hold
+
+    // The data long is laid out as: 25 bits move | 8 bits depth | 2 bits type | 8 bits age | 1 unused | 20 bits score
+    private static final int DEPTH_SHIFT = 25;
+    private static final int TYPE_SHIFT = 33;
+    private static final int AGE_SHIFT = 35;
+    private static final int SCORE_SHIFT = 44;
+    private static final long MOVE_MASK = (1L << DEPTH_SHIFT) - 1;
+    private static final int MAX_DEPTH = 0xFF;
+    private static final int AGE_MASK = 0xFF;
+    private static final int MAX_SCORE = (1 << 19) - 1; // Scores are stored as 20 bit signed integers
+
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
+
+    private final long[] table;
+    private final int bucketMask;
+    private int age; // Which search entries were stored in, used to prefer replacing entries from earlier searches
+
+    /**
+     * Creates a table using up to the specified amount of memory. The number of buckets is rounded down to a power of
+     * two, so a bucket can be found from a hash with a mask rather than a division.
+     * @param megabytes The maximum size of the table in megabytes.
+     */
+    public TranspositionTable(final int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES)
+            throw new IllegalArgumentException("Transposition table size must be between 1 and " + MAX_MEGABYTES + " MB");
+
+        final long entries = (long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY;
+        final int buckets = Integer.highestOneBit((int) (entries / BUCKET_SIZE));
+        this.table = new long[buckets * BUCKET_SIZE * LONGS_PER_ENTRY];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Removes every entry from the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * Marks the start of a new search, so entries stored from now on are preferred over older ones when replacing.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Looks up the entry for a particular board state.
+     * @param hash The zobrist hash of the board state.
+     * @return The entry's data, to be read with the static getter methods, or NO_ENTRY if there is no entry.
+     */
+    public long probe(final long hash) {
+        final int bucket = bucketIndex(hash);
+        for (int i = bucket; i < bucket + BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = table[i + 1];
+            if ((table[i] ^ data) == hash && data != NO_ENTRY)
+                return data;
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores the result of searching a particular board state.
+     * @param hash The zobrist hash of the board state.
+     * @param score The score of the board state.
+     * @param depth The depth the board state was searched to.
+     * @param type Whether the score is exact, or an upper or lower bound.
+     * @param bestMove The best packed move found, or PackedMove.NONE if none was found.
+     */
+    public void store(final long hash, final int score, final int depth, final EntryType type, int bestMove) {
+        final int bucket = bucketIndex(hash);
+
+        // Prefer the slot already holding this board state, otherwise the least valuable slot in the bucket
+        int replace = bucket;
+        int lowestWorth = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = table[i + 1];
+            if ((table[i] ^ data) == hash && data != NO_ENTRY) {
+                if (bestMove == PackedMove.NONE)
+                    bestMove = getBestMove(data); // Keep the old best move rather than forgetting it
+                replace = i;
+                break;
+            }
+            final int worth = data == NO_ENTRY ? Integer.MIN_VALUE : getDepth(data) - 2 * ((age - getAge(data)) & AGE_MASK);
+            if (worth < lowestWorth) {
+                lowestWorth = worth;
+                replace = i;
+            }
+        }
+
+        final long data = (bestMove & MOVE_MASK) |
+                (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT |
+                (long) (type.ordinal() + 1) << TYPE_SHIFT |
+                (long) age << AGE_SHIFT |
+                (long) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score)) << SCORE_SHIFT;
+        table[replace] = hash ^ data;
+        table[replace + 1] = data;
+    }
+
+    public static int getScore(final long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    public static int getDepth(final long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    public static EntryType getType(final long entry) {
+        return ENTRY_TYPES[(int) (entry >>> TYPE_SHIFT & 0x3) - 1];
+    }
+
+    public static int getBestMove(final long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    private static int getAge(final long entry) {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * @return The capacity of the table, in entries.
+     */
+    public int getCapacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    private int bucketIndex(final long hash) {
+        return ((int) hash & bucketMask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+    }
+}
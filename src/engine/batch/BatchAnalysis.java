@@ -0,0 +1,220 @@
+package engine.batch;
+
+import engine.ai.SearchEngine;
+import engine.ai.SearchLimits;
+import engine.ai.SearchResult;
+import engine.board.Board;
+import engine.board.PackedMove;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Analyses a file of positions offline, searching several positions at once on a pool of workers. Each worker owns a
+ * single threaded search engine and each position is searched on its own board, so the workers share nothing and
+ * throughput scales with the number of cores. Positions are read ahead of the workers, and results are streamed to the
+ * output file in input order as they complete.
+ *
+ * Positions are given one per line as FEN or EPD. Anything after the position fields, such as the operations of an EPD
+ * line, is ignored. Blank lines and lines starting with # are skipped. Each output line holds the position, best move,
+ * score in centipawns, depth, nodes, time in milliseconds and principal variation, separated by tabs. A position that
+ * can't be read gets an error instead, so the output still lines up with the input.
+ *
+ * The transposition table is cleared before each position, which keeps every result independent of which worker
+ * searched it and what it searched before. Each worker's engine is registered as an MBean, so the statistics of a long
+ * batch can be watched from a JMX client.
+ *
+ * Usage: java engine.batch.BatchAnalysis [input] [output] [depth n] [movetime ms] [nodes n] [threads n] [hash mb]
+ */
+public final class BatchAnalysis {
+    private static final int DEFAULT_DEPTH = 6; // Used when none of depth, movetime and nodes are given
+    private static final int DEFAULT_HASH_SIZE = 16; // Megabytes per worker, as every worker has its own table
+    private static final int POSITIONS_PER_WORKER = 16; // How far the reader may get ahead of the writer
+    private static final int PROGRESS_INTERVAL = 1000; // The number of positions between progress reports
+
+    private BatchAnalysis() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java engine.batch.BatchAnalysis [input] [output] [depth n] [movetime ms] " +
+                    "[nodes n] [threads n] [hash mb]");
+            System.exit(1);
+        }
+
+        final int depth = intAfter(args, "depth", 0);
+        final long moveTime = longAfter(args, "movetime", 0);
+        final long nodes = longAfter(args, "nodes", 0);
+        final SearchLimits limits = depth == 0 && moveTime == 0 && nodes == 0 ? SearchLimits.depth(DEFAULT_DEPTH) :
+                new SearchLimits(depth, moveTime, nodes);
+        final int threadCount = intAfter(args, "threads", Runtime.getRuntime().availableProcessors());
+        final int hashSize = intAfter(args, "hash", DEFAULT_HASH_SIZE);
+
+        analyse(args[0], args[1], limits, threadCount, hashSize);
+    }
+
+    /**
+     * Analyses every position in the input file, writing a line per position to the output file.
+     * @param input The file of positions, one FEN or EPD per line.
+     * @param output The file to write the results to, replaced if it exists.
+     * @param limits The limits each position is searched with.
+     * @param threadCount The number of positions to search at once.
+     * @param hashSize The size of each worker's transposition table in megabytes.
+     */
+    public static void analyse(final String input, final String output, final SearchLimits limits,
+                               final int threadCount, final int hashSize) throws IOException, InterruptedException {
+        final List<SearchEngine> engines = Collections.synchronizedList(new ArrayList<>());
+        final ThreadLocal<SearchEngine> engine = ThreadLocal.withInitial(() -> {
+            final SearchEngine workerEngine = new SearchEngine(hashSize, 1);
+            workerEngine.registerMBean();
+            engines.add(workerEngine);
+            return workerEngine;
+        });
+        final ExecutorService workers = Executors.newFixedThreadPool(threadCount, runnable -> {
+            final Thread thread = new Thread(runnable, "batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final Queue<Future<String>> pending = new ArrayDeque<>(); // The submitted positions, in input order
+        final Statistics statistics = new Statistics();
+        final long startTime = System.nanoTime();
+
+        try (final BufferedReader reader = Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+             final BufferedWriter writer = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String position = readPosition(line);
+                if (position == null)
+                    continue;
+
+                pending.add(workers.submit(() -> analysePosition(position, limits, engine.get(), statistics)));
+                if (pending.size() >= threadCount * POSITIONS_PER_WORKER)
+                    write(pending.remove(), writer, statistics, startTime);
+            }
+            while (!pending.isEmpty())
+                write(pending.remove(), writer, statistics, startTime);
+        } finally {
+            workers.shutdownNow();
+            for (final SearchEngine workerEngine : engines)
+                workerEngine.shutdown();
+        }
+
+        report(statistics, startTime);
+    }
+
+    /**
+     * @return The position fields of a FEN or EPD line, or null if the line holds no position.
+     */
+    private static String readPosition(final String line) {
+        final String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#"))
+            return null;
+
+        // A FEN has the two move counters after the four fields it shares with EPD, where operations follow instead
+        final String[] fields = trimmed.split("\\s+");
+        int fieldCount = Math.min(4, fields.length);
+        while (fieldCount < Math.min(6, fields.length) && fields[fieldCount].matches("\\d+"))
+            fieldCount++;
+        return String.join(" ", Arrays.copyOf(fields, fieldCount));
+    }
+
+    /**
+     * Searches a position on the calling worker's engine.
+     * @return The output line for the position.
+     */
+    private static String analysePosition(final String position, final SearchLimits limits, final SearchEngine engine,
+                                          final Statistics statistics) {
+        final Board board;
+        try {
+            board = new Board(position);
+        } catch (final IllegalArgumentException e) {
+            return position + "\terror: " + e.getMessage();
+        }
+
+        engine.clearHash();
+        final SearchResult result = engine.search(board, limits);
+        statistics.add(result.getNodes());
+        final int bestMove = result.getBestMove();
+        return position + '\t' + (bestMove == PackedMove.NONE ? "0000" : PackedMove.toString(bestMove)) + '\t' +
+                result.getScore() + '\t' + result.getDepth() + '\t' + result.getNodes() + '\t' + result.getTime() +
+                '\t' + result.getPrincipalVariationString();
+    }
+
+    /**
+     * Waits for a position to be analysed, and writes its line.
+     */
+    private static void write(final Future<String> result, final BufferedWriter writer, final Statistics statistics,
+                              final long startTime) throws IOException, InterruptedException {
+        try {
+            writer.write(result.get());
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("A batch worker failed", e.getCause());
+        }
+        writer.newLine();
+
+        if (++statistics.positions % PROGRESS_INTERVAL == 0) {
+            writer.flush();
+            report(statistics, startTime);
+        }
+    }
+
+    private static void report(final Statistics statistics, final long startTime) {
+        final double seconds = (System.nanoTime() - startTime) / 1e9;
+        final long nodes = statistics.getNodes();
+        System.out.printf("%d positions in %.1f s, %.1f positions/s, %d nodes, %.0f nodes/s%n", statistics.positions,
+                seconds, statistics.positions / seconds, nodes, nodes / seconds);
+    }
+
+    private static int intAfter(final String[] args, final String name, final int defaultValue) {
+        final String value = valueAfter(args, name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static long longAfter(final String[] args, final String name, final long defaultValue) {
+        final String value = valueAfter(args, name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    /**
+     * @return The argument following the named argument, or null if it isn't present. The input and output files are
+     * skipped, so they can't be mistaken for names.
+     */
+    private static String valueAfter(final String[] args, final String name) {
+        for (int i = 2; i < args.length - 1; i++)
+            if (args[i].equals(name))
+                return args[i + 1];
+        return null;
+    }
+
+    /**
+     * The totals of a batch. Positions are only counted by the writing thread, while every worker adds its nodes.
+     */
+    private static final class Statistics {
+        private int positions;
+        private long nodes;
+
+        synchronized void add(final long positionNodes) {
+            nodes += positionNodes;
+        }
+
+        synchronized long getNodes() {
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package engine.board;
+
+/**
+ * This class contains constants and helper methods for working with bitboards. A bitboard is a 64 bit long where
+ * each bit represents a square on the board, using the same top down, left to right numbering (0 - 63) as the board.
+ */
+public final class Bitboard {
+    public static final long EMPTY = 0L;
+
+    // Squares attacked by a knight, king or pawn from each position. Pawn attacks are indexed by team first.
+    public static final long[] KNIGHT_ATTACKS = initializeLeaperAttacks(new int[][] {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+                                                                                   {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+    public static final long[] KING_ATTACKS = initializeLeaperAttacks(new int[][] {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1},
+                                                                                 {0, 1}, {1, -1}, {1, 0}, {1, 1}});
+    public static final long[][] PAWN_ATTACKS = {initializeLeaperAttacks(new int[][] {{-1, -1}, {-1, 1}}), // White
+                                                 initializeLeaperAttacks(new int[][] {{1, -1}, {1, 1}})};  // Black
+
+    // The squares strictly between two positions that share a rank, file or diagonal. Empty if they don't line up.
+    public static final long[][] BETWEEN = initializeBetween();
+
+    // The first and last ranks, where pawns promote
+    public static final long PROMOTION_RANKS = 0xFFL | 0xFFL << 56;
+
+    private Bitboard() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    /**
+     * Builds an attack table for a piece that jumps directly to its destinations, such as a knight or king
+     * @param offsets The rank and file offsets the piece can jump by
+     * @return The bitboard of attacked squares for each position
+     */
+    private static long[] initializeLeaperAttacks(final int[][] offsets) {
+        final long[] attacks = new long[Utility.BOARD_SQUARE_COUNT];
+
+        for (int position = 0; position < Utility.BOARD_SQUARE_COUNT; position++) {
+            for (final int[] offset : offsets) {
+                final int rank = position / Utility.RANK_SQUARE_COUNT + offset[0];
+                final int file = position % Utility.RANK_SQUARE_COUNT + offset[1];
+                if (rank >= 0 && rank < Utility.RANK_SQUARE_COUNT && file >= 0 && file < Utility.RANK_SQUARE_COUNT)
+                    attacks[position] |= squareMask(rank * Utility.RANK_SQUARE_COUNT + file);
+            }
+        }
+
+        return attacks;
+    }
+
+    /**
+     * Builds the table of squares between each pair of positions, by walking outward from each position along the
+     * eight rank, file and diagonal directions.
+     * @return The between table, indexed by both positions
+     */
+    private static long[][] initializeBetween() {
+        final long[][] between = new long[Utility.BOARD_SQUARE_COUNT][Utility.BOARD_SQUARE_COUNT];
+        final int[][] directions = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+        for (int position = 0; position < Utility.BOARD_SQUARE_COUNT; position++) {
+            for (final int[] direction : directions) {
+                long ray = EMPTY;
+                int rank = position / Utility.RANK_SQUARE_COUNT + direction[0];
+                int file = position % Utility.RANK_SQUARE_COUNT + direction[1];
+                while (rank >= 0 && rank < Utility.RANK_SQUARE_COUNT && file >= 0 && file < Utility.RANK_SQUARE_COUNT) {
+                    final int destination = rank * Utility.RANK_SQUARE_COUNT + file;
+                    between[position][destination] = ray;
+                    ray |= squareMask(destination);
+                    rank += direction[0];
+                    file += direction[1];
+                }
+            }
+        }
+
+        return between;
+    }
+
+    /**
+     * Gets a bitboard with only the specified square set
+     * @param position The position of the square (0 - 63)
+     * @return The single square bitboard
+     */
+    public static long squareMask(final int position) {
+        return 1L << position;
+    }
+
+    /**
+     * Checks if the specified square is set on the bitboard
+     * @param bitboard The bitboard to check
+     * @param position The position of the square (0 - 63)
+     * @return If the square is set or not
+     */
+    public static boolean isSet(final long bitboard, final int position) {
+        return (bitboard & squareMask(position)) != 0;
+    }
+
+    /**
+     * Gets the position of the lowest set square on the bitboard. Used alongside popLowestSquare to iterate over
+     * every square of a bitboard without allocating.
+     * @param bitboard The bitboard, which must not be empty
+     * @return The position of the lowest set square (0 - 63)
+     */
+    public static int lowestSquare(final long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * Clears the lowest set square on the bitboard
+     * @param bitboard The bitboard
+     * @return The bitboard without its lowest set square
+     */
+    public static long popLowestSquare(final long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    /**
+     * Prints the bitboard as an 8x8 grid, useful for debugging
+     * @param bitboard The bitboard to print
+     * @return The human readable string
+     */
+    public static String toString(final long bitboard) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < Utility.BOARD_SQUARE_COUNT; i++) {
+            builder.append(isSet(bitboard, i) ? " 1" : " .");
+            if ((i + 1) % Utility.RANK_SQUARE_COUNT == 0) {
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+}
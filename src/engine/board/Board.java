@@ -3,75 +3,294 @@ package engine.board;
 import engine.Team;
 import engine.pieces.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 /**
- * A chess board represented as a list of 64 engine.squares
+ * A chess board represented as a list of 64 engine.squares, mirrored by a set of bitboards for fast set operations
  */
 public class Board {
+    public static final int MAX_MOVES = 256; // More than the most legal moves any chess position can have
+
+    public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static final int NO_ENPASSENT = -1; // The en passant position when the last move wasn't a pawn jump
+
+    // Castling rights, one bit each so all four fit in an int
+    public static final int WHITE_SHORT_CASTLE = 1;
+    public static final int WHITE_LONG_CASTLE = 2;
+    public static final int BLACK_SHORT_CASTLE = 4;
+    public static final int BLACK_LONG_CASTLE = 8;
+    public static final int ALL_CASTLING_RIGHTS = 15;
+
+    private static final int INITIAL_HISTORY_CAPACITY = 256;
+    private static final String CASTLING_LETTERS = "KQkq"; // Indexed by the bit of each castling right
+
+    // The castling rights kept when a move starts or ends on each square. Moving a king or rook from its start square,
+    // or capturing a rook on its start square, gives up the rights that depend on it.
+    private static final int[] CASTLING_RIGHTS_MASK = initializeCastlingRightsMask();
+
+    // The order pieces join an exchange in, least valuable first, and what each is worth in one. The king joins last,
+    // and is worth more than everything else together, so the exchange is never continued by capturing it.
+    private static final Piece.PieceType[] EXCHANGE_ORDER = {Piece.PieceType.PAWN, Piece.PieceType.KNIGHT,
+            Piece.PieceType.BISHOP, Piece.PieceType.ROOK, Piece.PieceType.QUEEN, Piece.PieceType.KING};
+    private static final int[] EXCHANGE_VALUES = initializeExchangeValues();
+    private static final int MAX_EXCHANGE_LENGTH = 32; // Every piece on the board capturing in turn
 
-    private Zobrist zobrist;
     private Team turn; // Who's turn it is currently
     private final List<Square> gameBoard; // Internal game board represented as a list of squares
-    private final Stack<Move> moveHistory; // A history of previous moves. Used for undoing board moves and enpassent moves.
+
+    // A history of previous moves, used for undoing board moves and enpassent moves. Stored as parallel arrays
+    // indexed by ply rather than a stack of objects, so making and undoing moves doesn't allocate.
+    private int[] moveHistory; // The packed moves
+    private Piece[] movedPieceHistory; // The moving pieces, needed to undo promotions
+    private Piece[] attackedPieceHistory; // The attacked pieces, or null if not an attacking move
+    private boolean[] firstMoveHistory; // If each move was the moving piece's first move
+    private long[] hashHistory; // The hash before each move
+    private int[] castlingRightsHistory; // The castling rights before each move
+    private int[] enpassentHistory; // The en passant position before each move
+    private int[] halfmoveClockHistory; // The halfmove clock before each move
+    private int historySize;
+    private final int[] scratchMoves = new int[MAX_MOVES]; // Used by the methods returning move lists
+    private final int[] exchangeGains = new int[MAX_EXCHANGE_LENGTH]; // Used by staticExchangeEvaluation
     private final Piece whiteKing;
     private final Piece blackKing;
     private long hashCode;
+    private int castlingRights; // The castling rights each team still has
+    private int enpassentPosition; // The square a pawn jumped over on the last move
+    private int halfmoveClock; // The number of moves since the last capture or pawn move, for the fifty move rule
+    private int fullmoveNumber; // Starts at one, and goes up after each of black's moves
+    private final String startingFen; // The position the board was created from, before any of the moves
+
+    // Bitboard representation of the board, kept in sync with the list of squares. Indexed by team and piece type.
+    private final long[][] pieceBitboards = new long[2][6];
+    private final long[] teamBitboards = new long[2]; // Occupancy of each team
+    private long occupiedBitboard; // Occupancy of both teams
+
+    // Running material and piece-square scores, white minus black, kept in sync with the squares like the bitboards
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase; // The sum of the phase weights of the pieces on the board
+
+    private MoveGenerationMode moveGenerationMode = MoveGenerationMode.PIN_AWARE;
 
     /**
      * The default constructor creates a standard chess board setup
      */
     public Board() {
-        final List<Square> standardBoard = new ArrayList<>();
-
-        // Black's pieces
-        standardBoard.add(new Square(new Rook(Team.BLACK, 0, true)));
-        standardBoard.add(new Square(new Knight(Team.BLACK, 1, true)));
-        standardBoard.add(new Square(new Bishop(Team.BLACK, 2, true)));
-        standardBoard.add(new Square(new Queen(Team.BLACK, 3, true)));
-        standardBoard.add(new Square(new King(Team.BLACK, 4, true)));
-        standardBoard.add(new Square(new Bishop(Team.BLACK, 5, true)));
-        standardBoard.add(new Square(new Knight(Team.BLACK, 6, true)));
-        standardBoard.add(new Square(new Rook(Team.BLACK, 7, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 8, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 9, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 10, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 11, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 12, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 13, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 14, true)));
-        standardBoard.add(new Square(new Pawn(Team.BLACK, 15, true)));
-
-        // Fills in the 32 blank squares between white and black's opposing armies
-        for (int i = 16; i < 48; i++)
-            standardBoard.add(new Square(null));
-
-        // White's pieces
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 48, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 49, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 50, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 51, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 52, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 53, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 54, true)));
-        standardBoard.add(new Square(new Pawn(Team.WHITE, 55, true)));
-        standardBoard.add(new Square(new Rook(Team.WHITE, 56, true)));
-        standardBoard.add(new Square(new Knight(Team.WHITE, 57, true)));
-        standardBoard.add(new Square(new Bishop(Team.WHITE, 58, true)));
-        standardBoard.add(new Square(new Queen(Team.WHITE, 59, true)));
-        standardBoard.add(new Square(new King(Team.WHITE, 60, true)));
-        standardBoard.add(new Square(new Bishop(Team.WHITE, 61, true)));
-        standardBoard.add(new Square(new Knight(Team.WHITE, 62, true)));
-        standardBoard.add(new Square(new Rook(Team.WHITE, 63, true)));
-
-        this.turn = Team.WHITE;
-        this.moveHistory = new Stack<>();
-        this.gameBoard = standardBoard;
-        this.whiteKing = this.getSquare(Utility.WHITE_KING_START_POSITION).getPiece();
-        this.blackKing = this.getSquare(Utility.BLACK_KING_START_POSITION).getPiece();
-        zobrist = Zobrist.getInstance();
-        hashCode = zobrist.getFullHash(this);
+        this(STARTING_FEN);
+    }
+
+    /**
+     * Creates a board from a position in Forsyth-Edwards Notation, restoring the side to move, castling rights, en
+     * passant square and move counters. The move counters may be left out, as in EPD, and default to 0 and 1.
+     * Castling rights whose king or rook has left its start square are dropped, as is an en passant square no pawn can
+     * have jumped over, so a sloppy FEN still gives a consistent board.
+     *
+     * Implemented from www.chessprogramming.org/Forsyth-Edwards_Notation
+     *
+     * @param fen The position in Forsyth-Edwards Notation.
+     * @throws IllegalArgumentException If the FEN is malformed, or the position can't be played from.
+     */
+    public Board(final String fen) {
+        final String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4 || fields.length > 6)
+            throw new IllegalArgumentException("A FEN has 4 to 6 fields: " + fen);
+
+        this.gameBoard = parsePlacement(fields[0]);
+        this.turn = parseTurn(fields[1]);
+        this.moveHistory = new int[INITIAL_HISTORY_CAPACITY];
+        this.movedPieceHistory = new Piece[INITIAL_HISTORY_CAPACITY];
+        this.attackedPieceHistory = new Piece[INITIAL_HISTORY_CAPACITY];
+        this.firstMoveHistory = new boolean[INITIAL_HISTORY_CAPACITY];
+        this.hashHistory = new long[INITIAL_HISTORY_CAPACITY];
+        this.castlingRightsHistory = new int[INITIAL_HISTORY_CAPACITY];
+        this.enpassentHistory = new int[INITIAL_HISTORY_CAPACITY];
+        this.halfmoveClockHistory = new int[INITIAL_HISTORY_CAPACITY];
+        for (int i = 0; i < Utility.BOARD_SQUARE_COUNT; i++)
+            if (!gameBoard.get(i).isEmpty())
+                addPiece(gameBoard.get(i).getPiece(), i);
+        this.whiteKing = findKing(Team.WHITE);
+        this.blackKing = findKing(Team.BLACK);
+
+        final Piece opponentKing = turn == Team.WHITE ? blackKing : whiteKing;
+        if (isSquareAttacked(opponentKing.getPiecePosition(), turn))
+            throw new IllegalArgumentException("The side not to move is in check: " + fen);
+
+        this.castlingRights = parseCastlingRights(fields[2]);
+        this.enpassentPosition = parseEnpassentPosition(fields[3]);
+        this.halfmoveClock = fields.length > 4 ? parseCounter(fields[4], 0) : 0;
+        // Many EPD and puzzle files write a fullmove number of 0, which can only mean the count wasn't kept
+        this.fullmoveNumber = fields.length > 5 ? Math.max(1, parseCounter(fields[5], 0)) : 1;
+        this.startingFen = fen;
+        hashCode = Zobrist.getFullHash(this);
+    }
+
+    /**
+     * Reads the piece placement field of a FEN, rank 8 first. Pawns only get their jump while on their starting rank,
+     * which is the only use of the first move flag now that castling is decided by the castling rights.
+     * @param placement The piece placement field.
+     * @return The squares of the board, top down, left to right.
+     */
+    private static List<Square> parsePlacement(final String placement) {
+        final String[] ranks = placement.split("/");
+        if (ranks.length != Utility.RANK_SQUARE_COUNT)
+            throw new IllegalArgumentException("A FEN has 8 ranks: " + placement);
+
+        final List<Square> squares = new ArrayList<>(Utility.BOARD_SQUARE_COUNT);
+        for (int rank = 0; rank < ranks.length; rank++) {
+            for (final char letter : ranks[rank].toCharArray()) {
+                if (letter >= '1' && letter <= '8') {
+                    for (int i = 0; i < letter - '0'; i++)
+                        squares.add(new Square(null));
+                    continue;
+                }
+
+                final Team team = Character.isUpperCase(letter) ? Team.WHITE : Team.BLACK;
+                final Piece.PieceType type = pieceTypeOf(letter);
+                final int position = squares.size();
+                if (type == Piece.PieceType.PAWN && (rank == 0 || rank == Utility.RANK_SQUARE_COUNT - 1))
+                    throw new IllegalArgumentException("Pawn on a back rank: " + placement);
+                final boolean isFirstMove = type == Piece.PieceType.PAWN &&
+                        rank == (team == Team.WHITE ? Utility.RANK_SQUARE_COUNT - 2 : 1);
+                squares.add(new Square(Piece.create(type, team, position, isFirstMove)));
+            }
+            if (squares.size() != (rank + 1) * Utility.RANK_SQUARE_COUNT)
+                throw new IllegalArgumentException("Each rank of a FEN has 8 squares: " + placement);
+        }
+        return squares;
+    }
+
+    private static Piece.PieceType pieceTypeOf(final char letter) {
+        switch (Character.toLowerCase(letter)) {
+            case 'p':
+                return Piece.PieceType.PAWN;
+            case 'n':
+                return Piece.PieceType.KNIGHT;
+            case 'b':
+                return Piece.PieceType.BISHOP;
+            case 'r':
+                return Piece.PieceType.ROOK;
+            case 'q':
+                return Piece.PieceType.QUEEN;
+            case 'k':
+                return Piece.PieceType.KING;
+            default:
+                throw new IllegalArgumentException("Not a piece: " + letter);
+        }
+    }
+
+    private static Team parseTurn(final String turn) {
+        switch (turn) {
+            case "w":
+                return Team.WHITE;
+            case "b":
+                return Team.BLACK;
+            default:
+                throw new IllegalArgumentException("Not a side to move: " + turn);
+        }
+    }
+
+    private Piece findKing(final Team team) {
+        final long kings = getPieceBitboard(team, Piece.PieceType.KING);
+        if (Long.bitCount(kings) != 1)
+            throw new IllegalArgumentException("Each team needs exactly one king");
+        return gameBoard.get(Bitboard.lowestSquare(kings)).getPiece();
+    }
+
+    /**
+     * Reads the castling field of a FEN, keeping only the rights whose king and rook are still on their start squares.
+     */
+    private int parseCastlingRights(final String field) {
+        if (field.equals("-"))
+            return 0;
+
+        int rights = 0;
+        for (final char letter : field.toCharArray()) {
+            final int index = CASTLING_LETTERS.indexOf(letter);
+            if (index < 0)
+                throw new IllegalArgumentException("Not a castling right: " + letter);
+            rights |= 1 << index;
+        }
+
+        for (int position = 0; position < Utility.BOARD_SQUARE_COUNT; position++) {
+            final Piece piece = gameBoard.get(position).getPiece();
+            final Piece.PieceType expected = position == Utility.WHITE_KING_START_POSITION ||
+                    position == Utility.BLACK_KING_START_POSITION ? Piece.PieceType.KING : Piece.PieceType.ROOK;
+            final Team team = position < Utility.RANK_SQUARE_COUNT ? Team.BLACK : Team.WHITE;
+            if (piece == null || piece.getPieceType() != expected || piece.getTeam() != team)
+                rights &= CASTLING_RIGHTS_MASK[position];
+        }
+        return rights;
+    }
+
+    /**
+     * Reads the en passant field of a FEN, keeping the square only if a pawn of the side not to move can just have
+     * jumped over it.
+     */
+    private int parseEnpassentPosition(final String field) {
+        if (field.equals("-"))
+            return NO_ENPASSENT;
+
+        final int position = Utility.stringToPosition(field);
+        if (position / Utility.RANK_SQUARE_COUNT != (turn == Team.WHITE ? 2 : 5))
+            return NO_ENPASSENT;
+
+        final int direction = turn == Team.WHITE ? -Utility.RANK_SQUARE_COUNT : Utility.RANK_SQUARE_COUNT;
+        final Piece jumpedPawn = gameBoard.get(position - direction).getPiece();
+        if (!gameBoard.get(position).isEmpty() ||
+                !gameBoard.get(position + direction).isEmpty() ||
+                jumpedPawn == null || jumpedPawn.getPieceType() != Piece.PieceType.PAWN ||
+                jumpedPawn.getTeam() == turn)
+            return NO_ENPASSENT;
+        return position;
+    }
+
+    private static int parseCounter(final String field, final int minimum) {
+        final int counter = Integer.parseInt(field);
+        if (counter < minimum)
+            throw new IllegalArgumentException("Move counter out of range: " + field);
+        return counter;
+    }
+
+    private static int[] initializeExchangeValues() {
+        final int[] values = new int[EXCHANGE_ORDER.length];
+        int total = 0;
+        for (final Piece.PieceType type : EXCHANGE_ORDER) {
+            values[type.getValue()] = PieceSquareTables.getMaterialValue(type);
+            total += values[type.getValue()];
+        }
+        values[Piece.PieceType.KING.getValue()] = total * 16; // More than the pieces of both full armies
+        return values;
+    }
+
+    private static int[] initializeCastlingRightsMask() {
+        final int[] mask = new int[Utility.BOARD_SQUARE_COUNT];
+        Arrays.fill(mask, ALL_CASTLING_RIGHTS);
+        mask[Utility.WHITE_KING_START_POSITION] &= ~(WHITE_SHORT_CASTLE | WHITE_LONG_CASTLE);
+        mask[Utility.WHITE_KING_START_POSITION + 3] &= ~WHITE_SHORT_CASTLE;
+        mask[Utility.WHITE_KING_START_POSITION - 4] &= ~WHITE_LONG_CASTLE;
+        mask[Utility.BLACK_KING_START_POSITION] &= ~(BLACK_SHORT_CASTLE | BLACK_LONG_CASTLE);
+        mask[Utility.BLACK_KING_START_POSITION + 3] &= ~BLACK_SHORT_CASTLE;
+        mask[Utility.BLACK_KING_START_POSITION - 4] &= ~BLACK_LONG_CASTLE;
+        return mask;
+    }
+
+    /**
+     * Creates an independent copy of the board, by replaying this board's move history on a new board created from the
+     * same starting position. Useful for searching the same position on several threads at once.
+     * @return The copy of the board.
+     */
+    public Board copy() {
+        final Board copy = new Board(startingFen);
+        copy.setMoveGenerationMode(moveGenerationMode);
+        for (int i = 0; i < historySize; i++) {
+            if (moveHistory[i] == PackedMove.NONE)
+                copy.makeNullMove();
+            else
+                copy.makeMove(moveHistory[i]);
+        }
+        return copy;
     }
 
     /**
@@ -98,15 +317,132 @@ public class Board {
      * @return If the move was successful or not.
      */
     public boolean guiRequestMove(final int startPosition, final int destinationPosition) {
-        final List<Move> legalMoves = getLegalMoves(getTurn());
-        for (final Move move : legalMoves)
-            if (move.getPiece().getPiecePosition() == startPosition && move.getEndPosition() == destinationPosition) {
+        final int moveCount = getLegalMoves(getTurn(), scratchMoves);
+        for (int i = 0; i < moveCount; i++) {
+            final int move = scratchMoves[i];
+            if (PackedMove.getStartPosition(move) == startPosition && PackedMove.getEndPosition(move) == destinationPosition) {
                 makeMove(move);
                 return true;
             }
+        }
         return false;
     }
 
+    /**
+     * Finds the legal move matching the coordinate notation, such as e2e4 or e7e8q.
+     * @param coordinates The move in coordinate notation, with the promotion piece if any. Case insensitive.
+     * @return The packed move, or PackedMove.NONE if there is no such legal move.
+     */
+    public int findLegalMove(final String coordinates) {
+        final int moveCount = getLegalMoves(getTurn(), scratchMoves);
+        for (int i = 0; i < moveCount; i++)
+            if (PackedMove.toString(scratchMoves[i]).equalsIgnoreCase(coordinates))
+                return scratchMoves[i];
+        return PackedMove.NONE;
+    }
+
+    /**
+     * Getter method for the bitboard of a particular piece type and team
+     * @param team The team of the pieces.
+     * @param type The type of the pieces.
+     * @return The bitboard with a bit set for each square holding such a piece.
+     */
+    public long getPieceBitboard(final Team team, final Piece.PieceType type) {
+        return pieceBitboards[team.getValue()][type.getValue()];
+    }
+
+    /**
+     * Getter method for the occupancy bitboard of a team
+     * @param team The team.
+     * @return The bitboard with a bit set for each square holding one of the team's pieces.
+     */
+    public long getTeamBitboard(final Team team) {
+        return teamBitboards[team.getValue()];
+    }
+
+    /**
+     * Getter method for the occupancy bitboard of both teams
+     * @return The bitboard with a bit set for each square holding a piece.
+     */
+    public long getOccupiedBitboard() {
+        return occupiedBitboard;
+    }
+
+    /**
+     * @return The material and piece-square score for the middlegame, white minus black.
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * @return The material and piece-square score for the endgame, white minus black.
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return The game phase, from PieceSquareTables.MAX_PHASE in the opening down to 0 with only kings and pawns left.
+     * Promotions can push it past MAX_PHASE.
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Toggles the bit of the specified piece at the specified position, in each of the bitboards the piece belongs to.
+     * @param piece The piece to toggle.
+     * @param position The position of the piece (0 - 63).
+     */
+    private void toggleBitboards(final Piece piece, final int position) {
+        final long mask = Bitboard.squareMask(position);
+        pieceBitboards[piece.getTeam().getValue()][piece.getPieceType().getValue()] ^= mask;
+        teamBitboards[piece.getTeam().getValue()] ^= mask;
+        occupiedBitboard ^= mask;
+    }
+
+    /**
+     * Adds a piece at the specified position to the bitboards, the running scores and the hash.
+     * @param piece The piece to add.
+     * @param position The position of the piece (0 - 63).
+     */
+    private void addPiece(final Piece piece, final int position) {
+        toggleBitboards(piece, position);
+        hashCode ^= Zobrist.getPieceKey(piece, position);
+        middlegameScore += PieceSquareTables.getMiddlegameScore(piece, position);
+        endgameScore += PieceSquareTables.getEndgameScore(piece, position);
+        phase += PieceSquareTables.getPhaseWeight(piece);
+    }
+
+    /**
+     * Removes a piece at the specified position from the bitboards, the running scores and the hash.
+     * @param piece The piece to remove.
+     * @param position The position of the piece (0 - 63).
+     */
+    private void removePiece(final Piece piece, final int position) {
+        toggleBitboards(piece, position);
+        hashCode ^= Zobrist.getPieceKey(piece, position);
+        middlegameScore -= PieceSquareTables.getMiddlegameScore(piece, position);
+        endgameScore -= PieceSquareTables.getEndgameScore(piece, position);
+        phase -= PieceSquareTables.getPhaseWeight(piece);
+    }
+
+    /**
+     * Places a piece on the specified square, replacing whatever occupied it. All board changes should go through this
+     * method, as it keeps the bitboards, running scores and hash in sync with the list of squares.
+     * @param position The position of the square (0 - 63).
+     * @param piece The piece to place, or null to empty the square.
+     */
+    private void setPieceAt(final int position, final Piece piece) {
+        final Square square = gameBoard.get(position);
+        if (!square.isEmpty())
+            removePiece(square.getPiece(), position);
+        if (piece != null)
+            addPiece(piece, position);
+        square.setPiece(piece);
+    }
+
     /**
      * A helper method that moves a piece from one square to another
      * @param startPosition The start position as an integer from 0 - 63.
@@ -115,7 +451,6 @@ public class Board {
      */
     private void movePiece(final int startPosition, final int endPosition, final boolean isFirstMove) {
         final Square startSquare = gameBoard.get(startPosition);
-        final Square endSquare = gameBoard.get(endPosition);
         final Piece pieceToMove;
         if (!startSquare.isEmpty()) {
             pieceToMove = startSquare.getPiece();
@@ -125,8 +460,8 @@ public class Board {
             pieceToMove = null;
         }
 
-        startSquare.setPiece(null); // Empties start square
-        endSquare.setPiece(pieceToMove); // Places piece at end square
+        setPieceAt(startPosition, null); // Empties start square
+        setPieceAt(endPosition, pieceToMove); // Places piece at end square
     }
 
     /**
@@ -134,80 +469,167 @@ public class Board {
      * @param move The move to make on the board.
      */
     public void makeMove(final Move move) {
+        makeMove(move.getPackedMove());
+    }
+
+    /**
+     * Preforms the specified move on the board.
+     * @param move The packed move to make on the board.
+     */
+    public void makeMove(final int move) {
+        final int startPosition = PackedMove.getStartPosition(move);
+        final int endPosition = PackedMove.getEndPosition(move);
+        final Move.moveType type = PackedMove.getType(move);
+        final Piece movedPiece = gameBoard.get(startPosition).getPiece();
+        final int attackedPosition = type == Move.moveType.ENPASSENT ?
+                endPosition + (getTurn() == Team.WHITE ? 8 : -8) : endPosition;
+
+        if (historySize == moveHistory.length)
+            growHistory();
+        moveHistory[historySize] = move;
+        movedPieceHistory[historySize] = movedPiece;
+        attackedPieceHistory[historySize] = gameBoard.get(attackedPosition).getPiece();
+        firstMoveHistory[historySize] = movedPiece.isFirstMove();
+        hashHistory[historySize] = hashCode;
+        castlingRightsHistory[historySize] = castlingRights;
+        enpassentHistory[historySize] = enpassentPosition;
+        halfmoveClockHistory[historySize] = halfmoveClock;
+        historySize++;
+
+        // The pieces update the hash as they're moved, the rest of the state is XORed out here and back in at the end
+        hashCode ^= Zobrist.getCastlingKey(castlingRights) ^ Zobrist.getEnpassentKey(this);
+
         toggleTurn();
-        movePiece(move.getStartPosition(), move.getEndPosition(), false);
+        movePiece(startPosition, endPosition, false);
 
-        switch(move.getType()) {
+        switch(type) {
             case ENPASSENT: // Special case due to the attacked piece not being in its usual position
-                final int offset = getTurn() == Team.WHITE ? -8 : 8;
-                final int attackedPawnPosition = move.getEndPosition() + offset;
-                this.getSquare(attackedPawnPosition).setPiece(null);
+                setPieceAt(attackedPosition, null);
                 break;
             case SHORT_CASTLE: // Handles rook movement for the short castle
-                int rookStartPosition = move.getPiece().getPiecePosition() + 1;
-                int rookEndPosition = move.getPiece().getPiecePosition() - 1;
-                movePiece(rookStartPosition, rookEndPosition, false);
+                movePiece(endPosition + 1, endPosition - 1, false);
                 break;
             case LONG_CASTLE: // Handles rook movement for the long castle
-                rookStartPosition = move.getPiece().getPiecePosition() - 2;
-                rookEndPosition = move.getPiece().getPiecePosition() + 1;
-                movePiece(rookStartPosition, rookEndPosition, false);
+                movePiece(endPosition - 2, endPosition + 1, false);
                 break;
             case PAWN: // Handles pawn promotion
             case PAWN_ATTACK:
-                if(Utility.isBackRank(this.getSquare(move.getEndPosition()).getPiece())) {
-                    final Piece promotion = new Queen(move.getPiece().getTeam(), move.getEndPosition(), false);
-                    this.getSquare(move.getPiece().getPiecePosition()).setPiece(promotion);
+                if (PackedMove.isPromotion(move)) {
+                    final Piece promotion = Piece.create(PackedMove.getPromotionType(move), movedPiece.getTeam(),
+                            endPosition, false);
+                    setPieceAt(endPosition, promotion);
                 }
         }
 
-        moveHistory.push(move);
-        hashCode = zobrist.updateHash(hashCode, move, this);
+        castlingRights &= CASTLING_RIGHTS_MASK[startPosition] & CASTLING_RIGHTS_MASK[endPosition];
+        enpassentPosition = type == Move.moveType.PAWN_JUMP ? (startPosition + endPosition) / 2 : NO_ENPASSENT;
+        halfmoveClock = movedPiece.getPieceType() == Piece.PieceType.PAWN ||
+                attackedPieceHistory[historySize - 1] != null ? 0 : halfmoveClock + 1;
+        if (movedPiece.getTeam() == Team.BLACK)
+            fullmoveNumber++;
+        hashCode ^= Zobrist.getSideKey() ^ Zobrist.getCastlingKey(castlingRights) ^ Zobrist.getEnpassentKey(this);
     }
 
     /**
-     * Pops the last move from the moveHistory stack, and undoes it on the board.
+     * Removes the last move from the move history, and undoes it on the board.
      */
     public void undoMove() {
-        final Move move = moveHistory.pop();
+        historySize--;
+        final int move = moveHistory[historySize];
+        final int startPosition = PackedMove.getStartPosition(move);
+        final int endPosition = PackedMove.getEndPosition(move);
+        final Piece attackedPiece = attackedPieceHistory[historySize];
+        attackedPieceHistory[historySize] = null; // Don't hold on to captured pieces once they're back on the board
 
-        switch (move.getType()) {
+        switch (PackedMove.getType(move)) {
             case ENPASSENT: // Handles adding the attackedPawn on a different square then destinationPosition
-                final int offset = getTurn() == Team.WHITE ? -8 : 8;
-                final Piece attackedPawn = new Pawn(getTurn(), move.getEndPosition() + offset, false);
-                final int attackedPawnPosition = attackedPawn.getPiecePosition();
-                this.getSquare(attackedPawnPosition).setPiece(attackedPawn);
+                setPieceAt(attackedPiece.getPiecePosition(), attackedPiece);
                 break;
             case SHORT_CASTLE: // Handles returning the rook from the short castle
-                int rookStartPosition = move.getPiece().getPiecePosition() + 1;
-                int rookEndPosition =  move.getPiece().getPiecePosition() - 1;
-                movePiece(rookEndPosition, rookStartPosition, true);
+                movePiece(endPosition - 1, endPosition + 1, true);
                 break;
             case LONG_CASTLE: // Handles returning the rook from the long castle
-                rookStartPosition = move.getPiece().getPiecePosition() - 2;
-                rookEndPosition = move.getPiece().getPiecePosition() + 1;
-                movePiece(rookEndPosition, rookStartPosition, true);
+                movePiece(endPosition + 1, endPosition - 2, true);
                 break;
             case PAWN: // Handles replacing the promoted piece with a pawn
             case PAWN_ATTACK:
-                if(Utility.isBackRank(this.getSquare(move.getEndPosition()).getPiece())) {
-                    this.getSquare(move.getPiece().getPiecePosition()).setPiece(move.getPiece());
+                if (PackedMove.isPromotion(move)) {
+                    setPieceAt(endPosition, movedPieceHistory[historySize]);
                 }
         }
 
-        movePiece(move.getEndPosition(), move.getStartPosition(), move.isFirstMove()); // Moves the original piece back
-        gameBoard.get(move.getEndPosition()).setPiece(move.getAttackedPiece()); // Puts attacked piece back in original position
+        movePiece(endPosition, startPosition, firstMoveHistory[historySize]); // Moves the original piece back
+        if (PackedMove.getType(move) != Move.moveType.ENPASSENT)
+            setPieceAt(endPosition, attackedPiece); // Puts attacked piece back in original position
         toggleTurn();
-        hashCode = zobrist.updateHash(hashCode, move, this);
+        castlingRights = castlingRightsHistory[historySize];
+        enpassentPosition = enpassentHistory[historySize];
+        halfmoveClock = halfmoveClockHistory[historySize];
+        if (turn == Team.BLACK)
+            fullmoveNumber--;
+        hashCode = hashHistory[historySize];
+    }
+
+    /**
+     * Passes the turn to the opponent without moving a piece, for null move pruning. Any en passant capture is given
+     * up, and the null move is recorded in the move history as PackedMove.NONE. It must be undone with undoNullMove.
+     */
+    public void makeNullMove() {
+        if (historySize == moveHistory.length)
+            growHistory();
+        moveHistory[historySize] = PackedMove.NONE;
+        movedPieceHistory[historySize] = null;
+        attackedPieceHistory[historySize] = null;
+        hashHistory[historySize] = hashCode;
+        castlingRightsHistory[historySize] = castlingRights;
+        enpassentHistory[historySize] = enpassentPosition;
+        halfmoveClockHistory[historySize] = halfmoveClock;
+        historySize++;
+
+        hashCode ^= Zobrist.getEnpassentKey(this);
+        toggleTurn();
+        enpassentPosition = NO_ENPASSENT;
+        halfmoveClock++;
+        if (turn == Team.WHITE)
+            fullmoveNumber++;
+        hashCode ^= Zobrist.getSideKey();
+    }
+
+    /**
+     * Undoes the last move, which must have been made by makeNullMove.
+     */
+    public void undoNullMove() {
+        historySize--;
+        toggleTurn();
+        enpassentPosition = enpassentHistory[historySize];
+        halfmoveClock = halfmoveClockHistory[historySize];
+        if (turn == Team.BLACK)
+            fullmoveNumber--;
+        hashCode = hashHistory[historySize];
+    }
+
+    /**
+     * Doubles the capacity of the move history arrays
+     */
+    private void growHistory() {
+        final int capacity = moveHistory.length * 2;
+        moveHistory = Arrays.copyOf(moveHistory, capacity);
+        movedPieceHistory = Arrays.copyOf(movedPieceHistory, capacity);
+        attackedPieceHistory = Arrays.copyOf(attackedPieceHistory, capacity);
+        firstMoveHistory = Arrays.copyOf(firstMoveHistory, capacity);
+        hashHistory = Arrays.copyOf(hashHistory, capacity);
+        castlingRightsHistory = Arrays.copyOf(castlingRightsHistory, capacity);
+        enpassentHistory = Arrays.copyOf(enpassentHistory, capacity);
+        halfmoveClockHistory = Arrays.copyOf(halfmoveClockHistory, capacity);
     }
 
     public boolean isKingSafe() {
         Piece king = getTurn() == Team.WHITE ? whiteKing : blackKing;
-        return isSquareSafe(king.getPiecePosition(), getTurn() == Team.WHITE ? Team.BLACK : Team.WHITE);
+        return !isSquareAttacked(king.getPiecePosition(), getTurn().getOpponent());
     }
 
     public boolean isEndGameScenario() {
-        return getLegalMoves(getTurn()).isEmpty();
+        return getLegalMoves(getTurn(), scratchMoves) == 0;
     }
 
     /**
@@ -226,137 +648,291 @@ public class Board {
     }
 
     /**
-     * Peeks last move from the moveHistory stack
-     * @return lastMove of the moveHistory stack, without removing it
+     * Peeks last move from the move history
+     * @return The last move of the move history, without removing it. Null if no moves have been made.
      */
     public Move peekLastMove() {
-        return moveHistory.isEmpty() ? null : moveHistory.peek();
+        return historySize == 0 ? null : new Move(moveHistory[historySize - 1]);
+    }
+
+    /**
+     * Peeks last move from the move history, without allocating
+     * @return The last packed move of the move history, or PackedMove.NONE if no moves have been made.
+     */
+    public int peekLastPackedMove() {
+        return historySize == 0 ? PackedMove.NONE : moveHistory[historySize - 1];
     }
 
     /**
      * Gets all the possible moves that can be made on this particular board, respective to who's turn it is.
      *
      * @param team The team to get the moves for.
-     * @return The list of possible moves.
+     * @param moves The array to store the packed moves in.
+     * @param capturesOnly If only captures and promotions should be generated.
+     * @return The number of possible moves.
      */
-    private List<Move> getAllPossibleMoves(final Team team) {
-        final List<Move> moveList = new ArrayList<>();
+    private int getAllPossibleMoves(final Team team, final int[] moves, final boolean capturesOnly) {
+        int moveCount = 0;
+
+        // Walks the team's occupancy bitboard rather than all 64 squares
+        for (long pieces = getTeamBitboard(team); pieces != Bitboard.EMPTY; pieces = Bitboard.popLowestSquare(pieces)) {
+            final Piece piece = gameBoard.get(Bitboard.lowestSquare(pieces)).getPiece();
+            moveCount = capturesOnly ? piece.generateCaptures(this, ~Bitboard.EMPTY, moves, moveCount) :
+                    piece.generateMoves(this, ~Bitboard.EMPTY, moves, moveCount);
+        }
 
-        for (final Square square : gameBoard)
-            if (!square.isEmpty() && square.getPiece().getTeam() == team)
-                moveList.addAll(square.getPiece().generatePossibleMoves(this));
+        return moveCount;
+    }
 
-        return moveList;
+    /**
+     * Checks to see if the specified square is being attacked by any of the specified team's pieces.
+     *
+     * @param position The square's position to preform the check on
+     * @param team The attacking team
+     * @return If the square is attacked or not
+     */
+    public boolean isSquareAttacked(final int position, final Team team) {
+        return getAttackers(position, team, occupiedBitboard) != Bitboard.EMPTY;
     }
 
     /**
-     * Checks to see if the specified square is being attacked by any of the opposing teams pieces.
+     * Finds all of the specified team's pieces attacking a square. Rather than generating the team's moves, this probes
+     * outward from the square: a knight, king or pawn attacks the square if the same piece of the opposing team standing
+     * on the square would attack it, and likewise for sliders along rays.
      *
      * @param position The square's position to preform the check on
-     * @return If the square is safe or not
+     * @param team The attacking team
+     * @param occupancy The occupancy to use for blocking sliders, which may differ from the board's actual occupancy
+     * @return The bitboard of attacking pieces
      */
-    private boolean isSquareSafe(final int position, final Team team) {
-        for (final Move move : getAllPossibleMoves(team))
-            if (move.getEndPosition() == position)
-                return false;
+    public long getAttackers(final int position, final Team team, final long occupancy) {
+        final long[] pieces = pieceBitboards[team.getValue()];
+        final long queens = pieces[Piece.PieceType.QUEEN.getValue()];
 
-        return true;
+        return (Bitboard.KNIGHT_ATTACKS[position] & pieces[Piece.PieceType.KNIGHT.getValue()]) |
+                (Bitboard.KING_ATTACKS[position] & pieces[Piece.PieceType.KING.getValue()]) |
+                (Bitboard.PAWN_ATTACKS[team.getOpponent().getValue()][position] & pieces[Piece.PieceType.PAWN.getValue()]) |
+                (MagicBitboards.rookAttacks(position, occupancy) & (pieces[Piece.PieceType.ROOK.getValue()] | queens)) |
+                (MagicBitboards.bishopAttacks(position, occupancy) & (pieces[Piece.PieceType.BISHOP.getValue()] | queens));
+    }
+
+    /**
+     * Statically evaluates the exchange of captures a move starts on its end position, without making any moves. The
+     * teams take turns recapturing on the square with their least valuable attacker, and either team may stop when
+     * capturing again would only lose material. Sliders lined up behind an attacker join in once it has captured, by
+     * looking along the line it left for x-ray attackers. Pins and checks are ignored, so
+     * the result is an estimate, but a cheap one that sees a capture into a defended square for what it is.
+     *
+     * Implemented from www.chessprogramming.org/Static_Exchange_Evaluation and
+     * www.chessprogramming.org/SEE_-_The_Swap_Algorithm
+     *
+     * @param move The packed move of the team to move, usually a capture or promotion.
+     * @return The material the team to move wins in centipawns, negative if it loses material.
+     */
+    public int staticExchangeEvaluation(final int move) {
+        final int startPosition = PackedMove.getStartPosition(move);
+        final int endPosition = PackedMove.getEndPosition(move);
+        final boolean promotionSquare = Bitboard.isSet(Bitboard.PROMOTION_RANKS, endPosition);
+        final int[] gains = exchangeGains; // What the exchange is worth to the team making each capture, ending there
+        long occupancy = occupiedBitboard ^ Bitboard.squareMask(startPosition);
+
+        if (PackedMove.getType(move) == Move.moveType.ENPASSENT) {
+            occupancy ^= Bitboard.squareMask(endPosition + (getTurn() == Team.WHITE ? 8 : -8));
+            gains[0] = EXCHANGE_VALUES[Piece.PieceType.PAWN.getValue()];
+        } else {
+            final Piece.PieceType attackedType = PackedMove.getAttackedPieceType(move);
+            gains[0] = attackedType == null ? 0 : EXCHANGE_VALUES[attackedType.getValue()];
+        }
+
+        int pieceValue = EXCHANGE_VALUES[PackedMove.getPieceType(move).getValue()]; // The piece now on the square
+        if (PackedMove.isPromotion(move)) {
+            final int promotionValue = EXCHANGE_VALUES[PackedMove.getPromotionType(move).getValue()];
+            gains[0] += promotionValue - pieceValue;
+            pieceValue = promotionValue;
+        }
+
+        // The attackers of both teams, with sliders behind a capturing piece added as it leaves its square
+        final long[] white = pieceBitboards[Team.WHITE.getValue()];
+        final long[] black = pieceBitboards[Team.BLACK.getValue()];
+        final long queens = white[Piece.PieceType.QUEEN.getValue()] | black[Piece.PieceType.QUEEN.getValue()];
+        final long diagonalSliders = white[Piece.PieceType.BISHOP.getValue()] |
+                black[Piece.PieceType.BISHOP.getValue()] | queens;
+        final long straightSliders = white[Piece.PieceType.ROOK.getValue()] | black[Piece.PieceType.ROOK.getValue()] |
+                queens;
+        long attackers = (getAttackers(endPosition, Team.WHITE, occupancy) |
+                getAttackers(endPosition, Team.BLACK, occupancy)) & occupancy;
+        Team team = getTurn().getOpponent();
+        int depth = 0;
+
+        long teamAttackers;
+        while ((teamAttackers = attackers & teamBitboards[team.getValue()]) != Bitboard.EMPTY) {
+            // The least valuable attacker makes the next capture
+            final long[] pieces = pieceBitboards[team.getValue()];
+            Piece.PieceType attackerType = null;
+            long typeAttackers = Bitboard.EMPTY;
+            for (final Piece.PieceType type : EXCHANGE_ORDER) {
+                typeAttackers = teamAttackers & pieces[type.getValue()];
+                if (typeAttackers != Bitboard.EMPTY) {
+                    attackerType = type;
+                    break;
+                }
+            }
+
+            depth++;
+            gains[depth] = pieceValue - gains[depth - 1];
+            int attackerValue = EXCHANGE_VALUES[attackerType.getValue()];
+            if (promotionSquare && attackerType == Piece.PieceType.PAWN) {
+                // A pawn recapturing on the last rank promotes, and it may as well be to a queen
+                final int queenValue = EXCHANGE_VALUES[Piece.PieceType.QUEEN.getValue()];
+                gains[depth] += queenValue - attackerValue;
+                attackerValue = queenValue;
+            }
+
+            occupancy ^= Bitboard.squareMask(Bitboard.lowestSquare(typeAttackers));
+            if (attackerType == Piece.PieceType.PAWN || attackerType == Piece.PieceType.BISHOP ||
+                    attackerType == Piece.PieceType.QUEEN)
+                attackers |= MagicBitboards.bishopAttacks(endPosition, occupancy) & diagonalSliders;
+            if (attackerType == Piece.PieceType.ROOK || attackerType == Piece.PieceType.QUEEN)
+                attackers |= MagicBitboards.rookAttacks(endPosition, occupancy) & straightSliders;
+            attackers &= occupancy;
+            pieceValue = attackerValue;
+            team = team.getOpponent();
+        }
+
+        // Each team only makes a capture if it comes out ahead of stopping before it
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+
+    /**
+     * Gets all the legal moves the specified team can make, using the board's current move generation mode.
+     * @param team The team to get legal moves for.
+     * @return A list of possible moves, that don't result in the king being put in check.
+     */
+    public List<Move> getLegalMoves(final Team team) {
+        final int moveCount = getLegalMoves(team, scratchMoves);
+
+        final List<Move> legalMoves = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++)
+            legalMoves.add(new Move(scratchMoves[i]));
+        return legalMoves;
+    }
+
+    /**
+     * Gets all the legal moves the specified team can make in packed form, using the board's current move generation
+     * mode. Nothing is allocated, so this is the method to use in performance sensitive code such as the search.
+     * @param team The team to get legal moves for.
+     * @param moves The array to store the packed moves in, at least MAX_MOVES long.
+     * @return The number of legal moves stored in the array.
+     */
+    public int getLegalMoves(final Team team, final int[] moves) {
+        if (moveGenerationMode == MoveGenerationMode.PIN_AWARE)
+            return LegalMoveGenerator.generate(this, team, moves, false);
+        return getFilteredLegalMoves(team, moves, false);
+    }
+
+    /**
+     * Gets only the legal captures and promotions the specified team can make in packed form, using the board's
+     * current move generation mode. Quiet moves are never generated, which makes this much cheaper than filtering
+     * the full move list, and is what quiescence search runs on.
+     * @param team The team to get legal captures for.
+     * @param moves The array to store the packed moves in, at least MAX_MOVES long.
+     * @return The number of legal captures and promotions stored in the array.
+     */
+    public int getLegalCaptures(final Team team, final int[] moves) {
+        if (moveGenerationMode == MoveGenerationMode.PIN_AWARE)
+            return LegalMoveGenerator.generate(this, team, moves, true);
+        return getFilteredLegalMoves(team, moves, true);
     }
 
     /**
      * Checks each of the moves in the getAllPossibleMoves list for king safety. If the king is put in check, its not a
      * valid move.
      * @param team The team to check legal moves for.
-     * @return A list of possible moves, that don't result in the king being put in check.
+     * @param moves The array to store the packed moves in.
+     * @param capturesOnly If only captures and promotions should be generated.
+     * @return The number of possible moves that don't result in the king being put in check.
      */
-    public List<Move> getLegalMoves(final Team team) {
-        final List<Move> feasibleMoves = new ArrayList<>();
+    private int getFilteredLegalMoves(final Team team, final int[] moves, final boolean capturesOnly) {
+        final int possibleMoveCount = getAllPossibleMoves(team, moves, capturesOnly);
+        int moveCount = 0;
 
         final Piece king = (team == Team.WHITE) ? this.whiteKing : this.blackKing;
 
-        for (final Move possibleMove : this.getAllPossibleMoves(team)) {
+        for (int i = 0; i < possibleMoveCount; i++) {
+            final int possibleMove = moves[i];
             this.makeMove(possibleMove);
-            if (this.isSquareSafe(king.getPiecePosition(), getTurn())) feasibleMoves.add(possibleMove);
+            if (!this.isSquareAttacked(king.getPiecePosition(), getTurn())) moves[moveCount++] = possibleMove;
             undoMove();
         }
 
+        if (capturesOnly)
+            return moveCount;
+
         // Castle Moves
         if (this.canShortCastle(team)) {
-            feasibleMoves.add(new Move(king, king.getPiecePosition() + 2, Move.moveType.SHORT_CASTLE));
+            moves[moveCount++] = PackedMove.create(king.getPiecePosition(), king.getPiecePosition() + 2,
+                    Move.moveType.SHORT_CASTLE, Piece.PieceType.KING, null, null);
         }
         if (this.canLongCastle(team)) {
-            feasibleMoves.add(new Move(king, king.getPiecePosition() - 2, Move.moveType.LONG_CASTLE));
+            moves[moveCount++] = PackedMove.create(king.getPiecePosition(), king.getPiecePosition() - 2,
+                    Move.moveType.LONG_CASTLE, Piece.PieceType.KING, null, null);
         }
 
-        return feasibleMoves;
+        return moveCount;
     }
 
 
     /**
      * Checks if the specified team has the ability to king side castle. It accomplishes this by the following procedure:
-     * 1. Checks if the king is in its start position, and has yet to move.
-     * 2. Checks if the king-side rook is in its start position, and has yet to move.
-     * 3. Checks if the two squares between the king and the rook are empty.
-     * 4. Checks if the three squares the king traverses are 'safe' (have no opposing pieces attacking them)
+     * 1. Checks if the team still has the right to castle king side, which is lost once the king or rook moves.
+     * 2. Checks if the two squares between the king and the rook are empty.
+     * 3. Checks if the three squares the king traverses are 'safe' (have no opposing pieces attacking them)
      *
      * @param team The team to preform the check for.
-     * @return If the four conditions listed above are all true, returns true. Otherwise, false.
+     * @return If the three conditions listed above are all true, returns true. Otherwise, false.
      */
     boolean canShortCastle(final Team team) {
+        final int right = (team == Team.WHITE) ? WHITE_SHORT_CASTLE : BLACK_SHORT_CASTLE;
         final int kingStartPosition = (team == Team.WHITE) ? Utility.WHITE_KING_START_POSITION : Utility.BLACK_KING_START_POSITION;
-        final int rookStartPosition = kingStartPosition + 3;
-
-        if (getSquare(kingStartPosition).isEmpty() || getSquare(rookStartPosition).isEmpty()) return false;
-        final Piece shouldBeKing = getSquare(kingStartPosition).getPiece();
-        final Piece shouldBeRook = getSquare(rookStartPosition).getPiece();
-
-        if (shouldBeKing instanceof King &&
-                shouldBeKing.isFirstMove() &&
-                shouldBeRook instanceof Rook &&
-                shouldBeRook.isFirstMove() &&
-                getSquare(kingStartPosition + 1).isEmpty() &&
-                getSquare(kingStartPosition + 2).isEmpty()) {
-            for (int i = 0; i < 3; i++)
-                if (!isSquareSafe(kingStartPosition + i, (getTurn() == Team.WHITE) ? Team.BLACK : Team.WHITE))
-                    return false;
-
-            return true;
-        }
-        return false;
+
+        if ((castlingRights & right) == 0 ||
+                !getSquare(kingStartPosition + 1).isEmpty() ||
+                !getSquare(kingStartPosition + 2).isEmpty())
+            return false;
+
+        for (int i = 0; i < 3; i++)
+            if (isSquareAttacked(kingStartPosition + i, team.getOpponent()))
+                return false;
+        return true;
     }
 
     /**
      * Checks if the specified team has the ability to queen side castle. It accomplishes this by the following procedure:
-     * 1. Checks if the king is in its start position, and has yet to move.
-     * 2. Checks if the queen-side rook is in its start position, and has yet to move.
-     * 3. Checks if the three squares between the king and the rook are empty.
-     * 4. Checks if the three squares the king traverses are 'safe' (have no opposing pieces attacking them)
+     * 1. Checks if the team still has the right to castle queen side, which is lost once the king or rook moves.
+     * 2. Checks if the three squares between the king and the rook are empty.
+     * 3. Checks if the three squares the king traverses are 'safe' (have no opposing pieces attacking them)
      *
      * @param team The team to preform the check for.
-     * @return If the four conditions listed above are all true, returns true. Otherwise, false.
+     * @return If the three conditions listed above are all true, returns true. Otherwise, false.
      */
     boolean canLongCastle(final Team team) {
+        final int right = (team == Team.WHITE) ? WHITE_LONG_CASTLE : BLACK_LONG_CASTLE;
         final int kingStartPosition = (team == Team.WHITE) ? Utility.WHITE_KING_START_POSITION : Utility.BLACK_KING_START_POSITION;
-        final int rookStartPosition = kingStartPosition - 4;
-
-        if (getSquare(kingStartPosition).isEmpty() || getSquare(rookStartPosition).isEmpty()) return false;
-        final Piece shouldBeKing = getSquare(kingStartPosition).getPiece();
-        final Piece shouldBeRook = getSquare(rookStartPosition).getPiece();
-
-        if (shouldBeKing instanceof King &&
-                shouldBeKing.isFirstMove() &&
-                shouldBeRook instanceof Rook &&
-                shouldBeRook.isFirstMove() &&
-                getSquare(kingStartPosition - 1).isEmpty() &&
-                getSquare(kingStartPosition - 2).isEmpty() &&
-                getSquare(kingStartPosition - 3).isEmpty()) {
-            for (int i = 0; i < 3; i++)
-                if (!isSquareSafe(kingStartPosition - i, (getTurn() == Team.WHITE) ? Team.BLACK : Team.WHITE))
-                    return false;
-
-            return true;
-        }
-        return false;
+
+        if ((castlingRights & right) == 0 ||
+                !getSquare(kingStartPosition - 1).isEmpty() ||
+                !getSquare(kingStartPosition - 2).isEmpty() ||
+                !getSquare(kingStartPosition - 3).isEmpty())
+            return false;
+
+        for (int i = 0; i < 3; i++)
+            if (isSquareAttacked(kingStartPosition - i, team.getOpponent()))
+                return false;
+        return true;
     }
 
     /**
@@ -390,7 +966,120 @@ public class Board {
         return builder.toString();
     }
 
+    /**
+     * Writes the position in Forsyth-Edwards Notation, which the FEN constructor reads back into the same position.
+     * @return The position in Forsyth-Edwards Notation.
+     */
+    public String toFen() {
+        final StringBuilder builder = new StringBuilder();
+        for (int rank = 0; rank < Utility.RANK_SQUARE_COUNT; rank++) {
+            if (rank > 0)
+                builder.append('/');
+            int emptySquares = 0;
+            for (int file = 0; file < Utility.RANK_SQUARE_COUNT; file++) {
+                final Square square = gameBoard.get(rank * Utility.RANK_SQUARE_COUNT + file);
+                if (square.isEmpty()) {
+                    emptySquares++;
+                    continue;
+                }
+                if (emptySquares > 0)
+                    builder.append(emptySquares);
+                emptySquares = 0;
+                builder.append(fenLetter(square.getPiece()));
+            }
+            if (emptySquares > 0)
+                builder.append(emptySquares);
+        }
+
+        builder.append(turn == Team.WHITE ? " w " : " b ");
+        if (castlingRights == 0)
+            builder.append('-');
+        for (int i = 0; i < CASTLING_LETTERS.length(); i++)
+            if ((castlingRights & (1 << i)) != 0)
+                builder.append(CASTLING_LETTERS.charAt(i));
+        builder.append(' ').append(enpassentPosition == NO_ENPASSENT ? "-" :
+                Utility.positionToString(enpassentPosition));
+        return builder.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    private static char fenLetter(final Piece piece) {
+        final char letter;
+        switch (piece.getPieceType()) {
+            case PAWN:
+                letter = 'p';
+                break;
+            case KNIGHT:
+                letter = 'n';
+                break;
+            case BISHOP:
+                letter = 'b';
+                break;
+            case ROOK:
+                letter = 'r';
+                break;
+            case QUEEN:
+                letter = 'q';
+                break;
+            default:
+                letter = 'k';
+        }
+        return piece.getTeam() == Team.WHITE ? Character.toUpperCase(letter) : letter;
+    }
+
+    /**
+     * @return The number of moves since the last capture or pawn move, used for the fifty move rule.
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return The number of the current move, starting at one and going up after each of black's moves.
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return The castling rights each team still has, as a combination of the castling right bits.
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return The square a pawn jumped over on the last move, where it can be captured en passant, or NO_ENPASSENT.
+     */
+    public int getEnpassentPosition() {
+        return enpassentPosition;
+    }
+
+    /**
+     * @return The zobrist hash of the current position, the same as Zobrist.getFullHash would compute from scratch.
+     * Hashes are stable across runs for a given Zobrist.KEY_VERSION.
+     */
     public long getZobristHash() {
         return hashCode;
     }
+
+    /**
+     * Sets how getLegalMoves finds legal moves. Both modes produce the same moves, so this is mainly useful for
+     * comparing the two for correctness and speed.
+     * @param moveGenerationMode The mode to use.
+     */
+    public void setMoveGenerationMode(final MoveGenerationMode moveGenerationMode) {
+        this.moveGenerationMode = moveGenerationMode;
+    }
+
+    public MoveGenerationMode getMoveGenerationMode() {
+        return moveGenerationMode;
+    }
+
+    /**
+     * The ways legal moves can be generated
+     */
+    public enum MoveGenerationMode {
+        FILTERED, // Makes each pseudo-legal move, and keeps it only if the king isn't left in check
+        PIN_AWARE // Finds checkers and pinned pieces up front, and only generates legal moves
+    }
 }
\ No newline at end of file
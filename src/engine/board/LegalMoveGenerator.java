@@ -0,0 +1,120 @@
+package engine.board;
+
+import engine.Team;
+import engine.pieces.Piece;
+
+/**
+ * Generates legal moves directly, without making each move to test if it leaves the king in check. The pieces giving
+ * check and the pieces pinned to the king are found up front, and each piece is only allowed to move onto squares that
+ * keep the king safe.
+ *
+ * Implemented from www.chessprogramming.org/Move_Generation#Legal
+ */
+final class LegalMoveGenerator {
+
+    private LegalMoveGenerator() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    /**
+     * Generates every legal move for the specified team.
+     * @param board The board to generate moves on.
+     * @param team The team to generate moves for.
+     * @param moves The array to store the packed legal moves in.
+     * @param capturesOnly If only captures and promotions should be generated.
+     * @return The number of legal moves.
+     */
+    static int generate(final Board board, final Team team, final int[] moves, final boolean capturesOnly) {
+        int moveCount = 0;
+
+        final Team opponent = team.getOpponent();
+        final long ownPieces = board.getTeamBitboard(team);
+        final long opponentPieces = board.getTeamBitboard(opponent);
+        final long occupied = board.getOccupiedBitboard();
+        final long kingBitboard = board.getPieceBitboard(team, Piece.PieceType.KING);
+        final int kingPosition = Bitboard.lowestSquare(kingBitboard);
+        final long checkers = board.getAttackers(kingPosition, opponent, occupied);
+
+        // King moves. The king is removed from the occupancy so it can't hide from a slider behind its own square.
+        long kingTargets = Bitboard.EMPTY;
+        for (long squares = Bitboard.KING_ATTACKS[kingPosition] & ~ownPieces; squares != Bitboard.EMPTY;
+             squares = Bitboard.popLowestSquare(squares)) {
+            final int destination = Bitboard.lowestSquare(squares);
+            if (board.getAttackers(destination, opponent, occupied ^ kingBitboard) == Bitboard.EMPTY)
+                kingTargets |= Bitboard.squareMask(destination);
+        }
+        moveCount = generatePieceMoves(board, kingPosition, kingTargets, capturesOnly, moves, moveCount);
+
+        // In double check only the king can move
+        if (Long.bitCount(checkers) > 1)
+            return moveCount;
+
+        // In single check, the other pieces must capture the checker or block its ray
+        final long targets = checkers == Bitboard.EMPTY ? ~ownPieces :
+                checkers | Bitboard.BETWEEN[kingPosition][Bitboard.lowestSquare(checkers)];
+
+        // Pinned pieces may only move along the ray between the king and the pinning slider
+        final long queens = board.getPieceBitboard(opponent, Piece.PieceType.QUEEN);
+        final long snipers = (MagicBitboards.rookAttacks(kingPosition, opponentPieces) &
+                (board.getPieceBitboard(opponent, Piece.PieceType.ROOK) | queens)) |
+                (MagicBitboards.bishopAttacks(kingPosition, opponentPieces) &
+                (board.getPieceBitboard(opponent, Piece.PieceType.BISHOP) | queens));
+        long pinned = Bitboard.EMPTY;
+        for (long remaining = snipers; remaining != Bitboard.EMPTY; remaining = Bitboard.popLowestSquare(remaining)) {
+            final int sniperPosition = Bitboard.lowestSquare(remaining);
+            final long blockers = Bitboard.BETWEEN[kingPosition][sniperPosition] & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & ownPieces) != Bitboard.EMPTY) {
+                pinned |= blockers;
+                final long pinRay = Bitboard.BETWEEN[kingPosition][sniperPosition] | Bitboard.squareMask(sniperPosition);
+                moveCount = generatePieceMoves(board, Bitboard.lowestSquare(blockers), targets & pinRay, capturesOnly,
+                        moves, moveCount);
+            }
+        }
+
+        for (long pieces = ownPieces & ~kingBitboard & ~pinned; pieces != Bitboard.EMPTY;
+             pieces = Bitboard.popLowestSquare(pieces)) {
+            moveCount = generatePieceMoves(board, Bitboard.lowestSquare(pieces), targets, capturesOnly, moves, moveCount);
+        }
+
+        // An en passant capture removes two pieces from the capturing pawn's rank, which can expose the king in ways
+        // pins don't catch, so each one is checked against the resulting occupancy.
+        int legalMoveCount = 0;
+        for (int i = 0; i < moveCount; i++) {
+            if (PackedMove.getType(moves[i]) != Move.moveType.ENPASSENT || isEnpassentLegal(board, moves[i], opponent, kingPosition))
+                moves[legalMoveCount++] = moves[i];
+        }
+
+        // Castle Moves
+        if (checkers == Bitboard.EMPTY && !capturesOnly) {
+            if (board.canShortCastle(team)) {
+                moves[legalMoveCount++] = PackedMove.create(kingPosition, kingPosition + 2, Move.moveType.SHORT_CASTLE,
+                        Piece.PieceType.KING, null, null);
+            }
+            if (board.canLongCastle(team)) {
+                moves[legalMoveCount++] = PackedMove.create(kingPosition, kingPosition - 2, Move.moveType.LONG_CASTLE,
+                        Piece.PieceType.KING, null, null);
+            }
+        }
+
+        return legalMoveCount;
+    }
+
+    private static int generatePieceMoves(final Board board, final int position, final long targets,
+                                          final boolean capturesOnly, final int[] moves, final int moveCount) {
+        final Piece piece = board.getSquare(position).getPiece();
+        return capturesOnly ? piece.generateCaptures(board, targets, moves, moveCount) :
+                piece.generateMoves(board, targets, moves, moveCount);
+    }
+
+    /**
+     * Checks if an en passant capture leaves the king safe, by testing for attackers against the occupancy the board
+     * would have after the capture.
+     */
+    private static boolean isEnpassentLegal(final Board board, final int move, final Team opponent, final int kingPosition) {
+        final int capturedPosition = PackedMove.getEndPosition(move) + (opponent == Team.WHITE ? -8 : 8);
+        final long capturedBitboard = Bitboard.squareMask(capturedPosition);
+        final long occupied = board.getOccupiedBitboard() ^ Bitboard.squareMask(PackedMove.getStartPosition(move)) ^
+                Bitboard.squareMask(PackedMove.getEndPosition(move)) ^ capturedBitboard;
+        return (board.getAttackers(kingPosition, opponent, occupied) & ~capturedBitboard) == Bitboard.EMPTY;
+    }
+}
@@ -0,0 +1,164 @@
+package engine.board;
+
+/**
+ * Precomputed sliding piece attack tables, indexed using magic bitboards. Given a square and the occupancy of the board,
+ * the squares attacked by a rook, bishop or queen are found with a single multiplication, shift and table lookup.
+ *
+ * Implemented from www.chessprogramming.org/Magic_Bitboards
+ */
+public final class MagicBitboards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // rank and file offsets
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // Magic numbers for this board's square numbering (0 = a8, 63 = h1), found by a seeded trial and error search.
+    private static final long[] ROOK_MAGICS = {
+            0x608000802C400010L, 0x0040004020001000L, 0x8200120080084020L, 0x8200100408220040L,
+            0x2200200200100408L, 0x4100010084000208L, 0x0880008001000200L, 0x2080104900002080L,
+            0x4014802080004000L, 0x0800402000401000L, 0x0610801000200088L, 0x0402002042001008L,
+            0x0605000468003102L, 0x0410808004000200L, 0x0019004100020044L, 0x2612002081004402L,
+            0x0080908000204001L, 0x0000404000201000L, 0x0000820010420020L, 0x0020808010000800L,
+            0x8008008004008008L, 0x1805010002080400L, 0x0000040001021008L, 0x6C0102003040810CL,
+            0x1000802080004000L, 0x0020008080204001L, 0x0000100880200280L, 0x7A40196300100100L,
+            0x0023001100080004L, 0x9410100801044020L, 0x142A000A00080421L, 0x34121422000C4085L,
+            0xB000408001002100L, 0x0010004002402010L, 0x0000104901002000L, 0x0082100082800800L,
+            0x0000040080800800L, 0x0842020080800400L, 0x0002000100408040L, 0x000104108200024BL,
+            0x0400800040008023L, 0x0050002008484001L, 0x0210200041010010L, 0x0200080010008080L,
+            0x0001020800050010L, 0x0000040002008080L, 0x1800820801040010L, 0x04080104409A0004L,
+            0x0002703203005600L, 0x8910204009048100L, 0x6040100080200080L, 0x0301900161003900L,
+            0x0142000420891200L, 0x0005800400020080L, 0x8000010210288400L, 0x8200404094010A00L,
+            0x8804190040208202L, 0x0280670090400081L, 0x9100200008401101L, 0x0C00200900041001L,
+            0x0005001002180055L, 0x2009000400020801L, 0x40086E0090010814L, 0x0004040121008846L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0204200212002102L, 0x0302020802108103L, 0x0004010A020C08C0L, 0x0008085100140080L,
+            0x2024042008000008L, 0x1002028221021001L, 0x0400420821580804L, 0x0000524806101028L,
+            0x4010040830041080L, 0x0001020204041480L, 0x000004182A0B40C0L, 0x02A0420A02000004L,
+            0x0000011040082020L, 0x2040011120100054L, 0x0008008218202400L, 0x0200410088040211L,
+            0x00400004312A0220L, 0x1042780410422202L, 0x1044000818002488L, 0x00208C1802024080L,
+            0x00020004021140C0L, 0x100080A808043A10L, 0x00810400980F7000L, 0xF000280082082200L,
+            0x0014200006087020L, 0x0404420010622800L, 0x2008010408004901L, 0x0022008028008002L,
+            0x0101001021004008L, 0x00080A0002209C04L, 0x00060040008C5000L, 0x000C010044450491L,
+            0x000410C000080248L, 0x0018040410020841L, 0x5102080400220824L, 0x00C0020080080080L,
+            0x0040004100401100L, 0x0001100080410060L, 0x000C052200004840L, 0x040A340900824451L,
+            0x0020900450086068L, 0x01908201A000D080L, 0x104082080200C100L, 0x04140A2011000808L,
+            0x24C040410A000900L, 0x0042409000801100L, 0xE110190124000106L, 0x8010042840430088L,
+            0x8004821050040100L, 0x0080840402020C40L, 0x0000102C02080880L, 0x14100501A0A80000L,
+            0x09000411020A1000L, 0x4000041002920001L, 0x0440080880808800L, 0x02C801441C004918L,
+            0x0000210118114010L, 0x4840034218040280L, 0x0220001542281400L, 0x0C51116022420208L,
+            0xC082000812820200L, 0x04A0404085080080L, 0x0044091010088924L, 0x0020200100408080L
+    };
+
+    private static final long[] ROOK_MASKS = new long[Utility.BOARD_SQUARE_COUNT];
+    private static final long[] BISHOP_MASKS = new long[Utility.BOARD_SQUARE_COUNT];
+    private static final int[] ROOK_SHIFTS = new int[Utility.BOARD_SQUARE_COUNT];
+    private static final int[] BISHOP_SHIFTS = new int[Utility.BOARD_SQUARE_COUNT];
+    private static final long[][] ROOK_ATTACKS = new long[Utility.BOARD_SQUARE_COUNT][];
+    private static final long[][] BISHOP_ATTACKS = new long[Utility.BOARD_SQUARE_COUNT][];
+
+    static {
+        for (int position = 0; position < Utility.BOARD_SQUARE_COUNT; position++) {
+            initializeSquare(position, ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_ATTACKS);
+            initializeSquare(position, BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_ATTACKS);
+        }
+    }
+
+    private MagicBitboards() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    /**
+     * Gets the squares a rook attacks from the specified position.
+     * @param position The rook's position (0 - 63)
+     * @param occupancy The occupancy bitboard of the board
+     * @return The bitboard of attacked squares, including squares occupied by either team
+     */
+    public static long rookAttacks(final int position, final long occupancy) {
+        final int index = (int) (((occupancy & ROOK_MASKS[position]) * ROOK_MAGICS[position]) >>> ROOK_SHIFTS[position]);
+        return ROOK_ATTACKS[position][index];
+    }
+
+    /**
+     * Gets the squares a bishop attacks from the specified position.
+     * @param position The bishop's position (0 - 63)
+     * @param occupancy The occupancy bitboard of the board
+     * @return The bitboard of attacked squares, including squares occupied by either team
+     */
+    public static long bishopAttacks(final int position, final long occupancy) {
+        final int index = (int) (((occupancy & BISHOP_MASKS[position]) * BISHOP_MAGICS[position]) >>> BISHOP_SHIFTS[position]);
+        return BISHOP_ATTACKS[position][index];
+    }
+
+    /**
+     * Gets the squares a queen attacks from the specified position.
+     * @param position The queen's position (0 - 63)
+     * @param occupancy The occupancy bitboard of the board
+     * @return The bitboard of attacked squares, including squares occupied by either team
+     */
+    public static long queenAttacks(final int position, final long occupancy) {
+        return rookAttacks(position, occupancy) | bishopAttacks(position, occupancy);
+    }
+
+    /**
+     * Fills in the relevant occupancy mask and attack table for a single square. Every subset of the mask is enumerated
+     * and its attack set is calculated by walking each ray, then stored at its magic index.
+     */
+    private static void initializeSquare(final int position, final int[][] directions, final long[] magics,
+                                         final long[] masks, final int[] shifts, final long[][] attacks) {
+        final long mask = relevantOccupancy(position, directions);
+        final int bits = Long.bitCount(mask);
+        masks[position] = mask;
+        shifts[position] = 64 - bits;
+        attacks[position] = new long[1 << bits];
+
+        long subset = 0L;
+        do {
+            final int index = (int) ((subset * magics[position]) >>> shifts[position]);
+            attacks[position][index] = slidingAttacks(position, subset, directions);
+            subset = (subset - mask) & mask; // Carry-Rippler trick, steps through every subset of the mask
+        } while (subset != 0L);
+    }
+
+    /**
+     * The squares whose occupancy affects the attack set of a slider. The final square of each ray is excluded, as a
+     * piece on it can never block anything further.
+     */
+    private static long relevantOccupancy(final int position, final int[][] directions) {
+        long mask = 0L;
+        for (final int[] direction : directions) {
+            int rank = position / Utility.RANK_SQUARE_COUNT + direction[0];
+            int file = position % Utility.RANK_SQUARE_COUNT + direction[1];
+            while (isOnBoard(rank + direction[0], file + direction[1])) {
+                mask |= Bitboard.squareMask(rank * Utility.RANK_SQUARE_COUNT + file);
+                rank += direction[0];
+                file += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Calculates a slider's attack set the slow way, by stepping along each ray until a piece blocks it.
+     */
+    private static long slidingAttacks(final int position, final long occupancy, final int[][] directions) {
+        long attacks = 0L;
+        for (final int[] direction : directions) {
+            int rank = position / Utility.RANK_SQUARE_COUNT + direction[0];
+            int file = position % Utility.RANK_SQUARE_COUNT + direction[1];
+            while (isOnBoard(rank, file)) {
+                final long square = Bitboard.squareMask(rank * Utility.RANK_SQUARE_COUNT + file);
+                attacks |= square;
+                if ((occupancy & square) != 0)
+                    break;
+                rank += direction[0];
+                file += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(final int rank, final int file) {
+        return rank >= 0 && rank < Utility.RANK_SQUARE_COUNT && file >= 0 && file < Utility.RANK_SQUARE_COUNT;
+    }
+}
@@ -3,77 +3,50 @@ package engine.board;
 import engine.pieces.Piece;
 
 /**
- * A class representing an individual move on a chessboard.
+ * A class representing an individual move on a chessboard. The move itself is stored in packed form, see PackedMove.
+ * The engine works directly with packed moves, this class exists for code that prefers working with objects.
  */
 public class Move {
-    private final Piece piece; // The piece we are moving
-    private final Piece attackedPiece; // The attacked piece, null if not an attacking move
-    private final int startPosition; // The pieces start position (0 - 63)
-    private final int endPosition; // The pieces end position (0 - 63)
-    private final moveType moveType; // The type of move
-    private final boolean firstMove; // If this is the first move said piece has made
-    private final boolean attackingMove; // If this move is considered an attacking move
-
+    private final int packedMove;
 
     /**
-     * Constructor for a basic move.
-     * @param piece The moving piece.
-     * @param endPosition The destination position of the piece.
-     * @param moveType The type of move this is.
+     * Constructor for a move.
+     * @param packedMove The move in packed form.
      */
-    public Move(final Piece piece, final int endPosition, final moveType moveType) {
-        this.piece = piece;
-        this.startPosition = piece.getPiecePosition();
-        this.endPosition = endPosition;
-        this.moveType = moveType;
-        this.attackedPiece = null;
-        this.attackingMove = false;
-        firstMove = piece.isFirstMove();
+    public Move(final int packedMove) {
+        this.packedMove = packedMove;
     }
 
-    /**
-     * Constructor for an attacking move.
-     * @param piece The moving piece.
-     * @param endPosition The destination position of the piece.
-     * @param attackedPiece A clone of the piece being attacked.
-     * @param moveType The type of attack move this is.
-     */
-    public Move(final Piece piece, final int endPosition, final Piece attackedPiece, final moveType moveType) {
-        this.piece = piece;
-        this.endPosition = endPosition;
-        this.startPosition = piece.getPiecePosition();
-        this.moveType = moveType;
-        this.attackedPiece = attackedPiece.copyOf();
-        this.attackingMove = true;
-        firstMove = piece.isFirstMove();
+    public int getPackedMove() {
+        return packedMove;
     }
 
     public int getEndPosition() {
-        return endPosition;
+        return PackedMove.getEndPosition(packedMove);
     }
 
-    public Piece getPiece() {
-        return piece;
+    public int getStartPosition() {
+        return PackedMove.getStartPosition(packedMove);
     }
 
-    public Piece getAttackedPiece() {
-        return attackedPiece == null ? null : attackedPiece.copyOf();
+    public Piece.PieceType getPieceType() {
+        return PackedMove.getPieceType(packedMove);
     }
 
-    public moveType getType() {
-        return moveType;
+    public Piece.PieceType getAttackedPieceType() {
+        return PackedMove.getAttackedPieceType(packedMove);
     }
 
-    public int getStartPosition() {
-        return startPosition;
+    public Piece.PieceType getPromotionType() {
+        return PackedMove.getPromotionType(packedMove);
     }
 
-    public boolean isAttackingMove() {
-        return attackingMove;
+    public moveType getType() {
+        return PackedMove.getType(packedMove);
     }
 
-    public boolean isFirstMove() {
-        return firstMove;
+    public boolean isAttackingMove() {
+        return PackedMove.isAttackingMove(packedMove);
     }
 
     public enum moveType {
@@ -89,12 +62,17 @@ public class Move {
     }
 
     @Override
-    public String toString() {
-        final char x = (char) ((this.startPosition % 8) + 97);
-        final int y = 8 - ((this.startPosition / 8));
+    public boolean equals(final Object other) {
+        return other instanceof Move && ((Move) other).packedMove == packedMove;
+    }
+
+    @Override
+    public int hashCode() {
+        return packedMove;
+    }
 
-        final char x2 = (char) ((this.endPosition % 8) + 97);
-        final int y2 = 8 - ((this.endPosition / 8));
-        return piece + "" + x + Integer.toString(y) + x2 + Integer.toString(y2);
+    @Override
+    public String toString() {
+        return getPieceType() + PackedMove.toString(packedMove);
     }
 }
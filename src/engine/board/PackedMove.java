@@ -0,0 +1,117 @@
+package engine.board;
+
+import engine.pieces.Piece;
+
+/**
+ * Helper methods for moves packed into a single int. Packed moves can be stored in preallocated int arrays, so
+ * generating and searching moves doesn't allocate any objects. The bits are laid out as follows:
+ *
+ *  0 - 5   The start position (0 - 63)
+ *  6 - 11  The end position (0 - 63)
+ * 12 - 15  The move type
+ * 16 - 18  The type of the moving piece
+ * 19 - 21  The type of the attacked piece plus one, or zero if not an attacking move
+ * 22 - 24  The type of the piece promoted to plus one, or zero if not a promotion
+ */
+public final class PackedMove {
+    public static final int NONE = 0; // Never a real move, as the start and end positions would be the same
+
+    private static final int END_SHIFT = 6;
+    private static final int TYPE_SHIFT = 12;
+    private static final int PIECE_SHIFT = 16;
+    private static final int ATTACKED_SHIFT = 19;
+    private static final int PROMOTION_SHIFT = 22;
+    private static final int POSITION_MASK = 0x3F;
+    private static final int TYPE_MASK = 0xF;
+    private static final int PIECE_MASK = 0x7;
+
+    private static final Move.moveType[] MOVE_TYPES = Move.moveType.values();
+    private static final Piece.PieceType[] PIECE_TYPES = new Piece.PieceType[Piece.PieceType.values().length];
+    private static final String PROMOTION_LETTERS = "prnbkq"; // Indexed by piece type
+
+    static {
+        for (final Piece.PieceType type : Piece.PieceType.values())
+            PIECE_TYPES[type.getValue()] = type;
+    }
+
+    private PackedMove() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    /**
+     * Packs a move into an int.
+     * @param startPosition The start position of the moving piece.
+     * @param endPosition The end position of the moving piece.
+     * @param moveType The type of move.
+     * @param pieceType The type of the moving piece.
+     * @param attackedPieceType The type of the attacked piece, null if not an attacking move.
+     * @param promotionType The type of piece a pawn promotes to, null if not a promotion.
+     * @return The packed move.
+     */
+    public static int create(final int startPosition, final int endPosition, final Move.moveType moveType,
+                             final Piece.PieceType pieceType, final Piece.PieceType attackedPieceType,
+                             final Piece.PieceType promotionType) {
+        return startPosition |
+                endPosition << END_SHIFT |
+                moveType.ordinal() << TYPE_SHIFT |
+                pieceType.getValue() << PIECE_SHIFT |
+                (attackedPieceType == null ? 0 : attackedPieceType.getValue() + 1) << ATTACKED_SHIFT |
+                (promotionType == null ? 0 : promotionType.getValue() + 1) << PROMOTION_SHIFT;
+    }
+
+    public static int getStartPosition(final int move) {
+        return move & POSITION_MASK;
+    }
+
+    public static int getEndPosition(final int move) {
+        return (move >>> END_SHIFT) & POSITION_MASK;
+    }
+
+    public static Move.moveType getType(final int move) {
+        return MOVE_TYPES[(move >>> TYPE_SHIFT) & TYPE_MASK];
+    }
+
+    public static Piece.PieceType getPieceType(final int move) {
+        return PIECE_TYPES[(move >>> PIECE_SHIFT) & PIECE_MASK];
+    }
+
+    public static boolean isAttackingMove(final int move) {
+        return ((move >>> ATTACKED_SHIFT) & PIECE_MASK) != 0;
+    }
+
+    /**
+     * @param move The packed move.
+     * @return The type of the attacked piece, or null if not an attacking move.
+     */
+    public static Piece.PieceType getAttackedPieceType(final int move) {
+        final int attacked = (move >>> ATTACKED_SHIFT) & PIECE_MASK;
+        return attacked == 0 ? null : PIECE_TYPES[attacked - 1];
+    }
+
+    public static boolean isPromotion(final int move) {
+        return ((move >>> PROMOTION_SHIFT) & PIECE_MASK) != 0;
+    }
+
+    /**
+     * @param move The packed move.
+     * @return The type of piece the pawn promotes to, or null if not a promotion.
+     */
+    public static Piece.PieceType getPromotionType(final int move) {
+        final int promotion = (move >>> PROMOTION_SHIFT) & PIECE_MASK;
+        return promotion == 0 ? null : PIECE_TYPES[promotion - 1];
+    }
+
+    /**
+     * Prints the move in coordinate notation, such as e2e4 or e7e8q, as used by the UCI protocol.
+     * @param move The packed move.
+     * @return The human readable move.
+     */
+    public static String toString(final int move) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(Utility.positionToString(getStartPosition(move)))
+                .append(Utility.positionToString(getEndPosition(move)));
+        if (isPromotion(move))
+            builder.append(PROMOTION_LETTERS.charAt(getPromotionType(move).getValue()));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,191 @@
+package engine.board;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, known as perft. The counts for well known positions
+ * are published, so comparing against them verifies move generation, and the time taken measures its throughput.
+ * Divide prints the count below each root move separately, which narrows a wrong count down to the move responsible.
+ *
+ * Implemented from www.chessprogramming.org/Perft
+ *
+ * Usage: java engine.board.Perft suite [max depth] [--filtered]
+ *        java engine.board.Perft [divide] [depth] [--fen "fen"] [moves...] [--filtered]
+ *
+ * Moves are given in coordinate notation from the position given by --fen, or the standard starting position.
+ * --filtered uses the filtered move generation mode instead of the default, to compare the two.
+ */
+public final class Perft {
+    private static final int DEFAULT_SUITE_DEPTH = 5;
+
+    // The counts stop where a position takes much longer than the rest, so the whole suite stays quick to run
+    private static final TestPosition[] SUITE = {
+            new TestPosition("Start position", Board.STARTING_FEN,
+                    new long[] {20, 400, 8_902, 197_281, 4_865_609, 119_060_324}),
+            new TestPosition("Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[] {48, 2_039, 97_862, 4_085_603}),
+            new TestPosition("Position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[] {14, 191, 2_812, 43_238, 674_624, 11_030_083}),
+            new TestPosition("Position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[] {6, 264, 9_467, 422_333, 15_833_292}),
+            new TestPosition("Position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[] {44, 1_486, 62_379, 2_103_487}),
+    };
+
+    private Perft() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    public static void main(final String[] args) {
+        boolean filtered = false;
+        String fen = Board.STARTING_FEN;
+        int argCount = 0;
+        final String[] arguments = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--filtered"))
+                filtered = true;
+            else if (args[i].equals("--fen") && i + 1 < args.length)
+                fen = args[++i];
+            else
+                arguments[argCount++] = args[i];
+        }
+        final Board.MoveGenerationMode mode = filtered ? Board.MoveGenerationMode.FILTERED :
+                Board.MoveGenerationMode.PIN_AWARE;
+
+        if (argCount > 0 && arguments[0].equals("suite")) {
+            final int maxDepth = argCount > 1 ? Integer.parseInt(arguments[1]) : DEFAULT_SUITE_DEPTH;
+            if (!runSuite(maxDepth, mode))
+                System.exit(1);
+            return;
+        }
+
+        final boolean divide = argCount > 0 && arguments[0].equals("divide");
+        final int first = divide ? 1 : 0;
+        final int depth = argCount > first ? Integer.parseInt(arguments[first]) : DEFAULT_SUITE_DEPTH;
+        final String[] moves = new String[Math.max(0, argCount - first - 1)];
+        System.arraycopy(arguments, first + 1, moves, 0, moves.length);
+
+        final Board board = playMoves(fen, moves);
+        board.setMoveGenerationMode(mode);
+        final long start = System.nanoTime();
+        final long nodes = divide ? divide(board, depth) : perft(board, depth);
+        report(depth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the board.
+     * @param board The board to count from. It's returned to the same state afterwards.
+     * @param depth The depth to count to.
+     * @return The number of leaf nodes.
+     */
+    public static long perft(final Board board, final int depth) {
+        return perft(board, depth, new int[depth + 1][Board.MAX_MOVES]);
+    }
+
+    private static long perft(final Board board, final int depth, final int[][] moveBuffers) {
+        if (depth == 0)
+            return 1;
+
+        final int[] moves = moveBuffers[depth];
+        final int moveCount = board.getLegalMoves(board.getTurn(), moves);
+        if (depth == 1)
+            return moveCount; // Every legal move is a leaf, so there's no need to make them
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            nodes += perft(board, depth - 1, moveBuffers);
+            board.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below each root move separately, printing each count as it's found.
+     * @param board The board to count from. It's returned to the same state afterwards.
+     * @param depth The depth to count to, at least one.
+     * @return The total number of leaf nodes.
+     */
+    public static long divide(final Board board, final int depth) {
+        final int[][] moveBuffers = new int[depth + 1][Board.MAX_MOVES];
+        final int[] moves = moveBuffers[depth];
+        final int moveCount = board.getLegalMoves(board.getTurn(), moves);
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            final long moveNodes = perft(board, depth - 1, moveBuffers);
+            board.undoMove();
+            System.out.println(PackedMove.toString(moves[i]) + ": " + moveNodes);
+            nodes += moveNodes;
+        }
+        System.out.println();
+        return nodes;
+    }
+
+    /**
+     * Runs every position in the suite up to the specified depth, comparing against the expected counts.
+     * @return If every count matched.
+     */
+    private static boolean runSuite(final int maxDepth, final Board.MoveGenerationMode mode) {
+        boolean passed = true;
+        long totalNodes = 0;
+        long totalTime = 0;
+
+        for (final TestPosition position : SUITE) {
+            final Board board = new Board(position.fen);
+            board.setMoveGenerationMode(mode);
+            final long[] expected = position.nodeCounts;
+
+            System.out.println(position.name);
+            for (int depth = 1; depth <= Math.min(maxDepth, expected.length); depth++) {
+                final long start = System.nanoTime();
+                final long nodes = perft(board, depth);
+                final long time = System.nanoTime() - start;
+                final boolean matched = nodes == expected[depth - 1];
+                passed &= matched;
+                totalNodes += nodes;
+                totalTime += time;
+                System.out.printf("  depth %2d %14d %10.0f ms %12d nodes/s  %s%n", depth, nodes, time / 1e6,
+                        nodesPerSecond(nodes, time), matched ? "ok" : "FAILED, expected " + expected[depth - 1]);
+            }
+        }
+
+        System.out.printf("%s: %d nodes in %.0f ms, %d nodes/s%n", passed ? "Passed" : "FAILED", totalNodes,
+                totalTime / 1e6, nodesPerSecond(totalNodes, totalTime));
+        return passed;
+    }
+
+    private static void report(final int depth, final long nodes, final long time) {
+        System.out.printf("perft(%d) = %d in %.0f ms, %d nodes/s%n", depth, nodes, time / 1e6,
+                nodesPerSecond(nodes, time));
+    }
+
+    private static long nodesPerSecond(final long nodes, final long nanoseconds) {
+        return nanoseconds == 0 ? 0 : nodes * 1_000_000_000L / nanoseconds;
+    }
+
+    private static Board playMoves(final String fen, final String[] moves) {
+        final Board board = new Board(fen);
+        for (final String move : moves) {
+            final int packedMove = board.findLegalMove(move);
+            if (packedMove == PackedMove.NONE)
+                throw new IllegalArgumentException("Illegal move: " + move);
+            board.makeMove(packedMove);
+        }
+        return board;
+    }
+
+    /**
+     * A position with its published node counts.
+     */
+    private static final class TestPosition {
+        private final String name;
+        private final String fen;
+        private final long[] nodeCounts; // The node counts from depth 1 upwards
+
+        TestPosition(final String name, final String fen, final long[] nodeCounts) {
+            this.name = name;
+            this.fen = fen;
+            this.nodeCounts = nodeCounts;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package engine.board;
+
+import engine.Team;
+import engine.pieces.Piece;
+
+/**
+ * The material values and piece-square tables the board's running evaluation is built from. Each table scores a
+ * piece of that type on each square from white's point of view, and is mirrored for black. The king has a separate
+ * endgame table, as it should hide early in the game but come out to fight once most of the pieces are gone.
+ *
+ * Tables are from www.chessprogramming.org/Simplified_Evaluation_Function
+ */
+public final class PieceSquareTables {
+    // The game phase counts down from MAX_PHASE with all the pieces on the board to 0 with only kings and pawns
+    public static final int MAX_PHASE = 24;
+    private static final int[] PHASE_WEIGHTS = {0, 2, 1, 1, 0, 4}; // Indexed by piece type
+
+    private static final int PAWN_VALUE = 100;
+    private static final int KNIGHT_VALUE = 320;
+    private static final int BISHOP_VALUE = 330;
+    private static final int ROOK_VALUE = 500;
+    private static final int QUEEN_VALUE = 900;
+    // Indexed by piece type. Both teams always have a king, so its value would cancel out.
+    private static final int[] MATERIAL_VALUES = {PAWN_VALUE, ROOK_VALUE, KNIGHT_VALUE, BISHOP_VALUE, 0, QUEEN_VALUE};
+
+    private static final int[] PAWN_TABLE = {0,  0,  0,  0,  0,  0,  0,  0,
+                                            50, 50, 50, 50, 50, 50, 50, 50,
+                                            10, 10, 20, 30, 30, 20, 10, 10,
+                                             5,  5, 10, 25, 25, 10,  5,  5,
+                                             0,  0,  0, 20, 20,  0,  0,  0,
+                                             5, -5,-10,  0,  0,-10, -5,  5,
+                                             5, 10, 10,-20,-20, 10, 10,  5,
+                                             0,  0,  0,  0,  0,  0,  0,  0};
+
+    private static final int[] KNIGHT_TABLE = {-50,-40,-30,-30,-30,-30,-40,-50,
+                                               -40,-20,  0,  0,  0,  0,-20,-40,
+                                               -30,  0, 10, 15, 15, 10,  0,-30,
+                                               -30,  5, 15, 20, 20, 15,  5,-30,
+                                               -30,  0, 15, 20, 20, 15,  0,-30,
+                                               -30,  5, 10, 15, 15, 10,  5,-30,
+                                               -40,-20,  0,  5,  5,  0,-20,-40,
+                                               -50,-40,-30,-30,-30,-30,-40,-50};
+
+    private static final int[] BISHOP_TABLE = {-20,-10,-10,-10,-10,-10,-10,-20,
+                                               -10,  0,  0,  0,  0,  0,  0,-10,
+                                               -10,  0,  5, 10, 10,  5,  0,-10,
+                                               -10,  5,  5, 10, 10,  5,  5,-10,
+                                               -10,  0, 10, 10, 10, 10,  0,-10,
+                                               -10, 10, 10, 10, 10, 10, 10,-10,
+                                               -10,  5,  0,  0,  0,  0,  5,-10,
+                                               -20,-10,-10,-10,-10,-10,-10,-20};
+
+    private static final int[] ROOK_TABLE = {0,  0,  0,  0,  0,  0,  0,  0,
+                                             5, 10, 10, 10, 10, 10, 10,  5,
+                                            -5,  0,  0,  0,  0,  0,  0, -5,
+                                            -5,  0,  0,  0,  0,  0,  0, -5,
+                                            -5,  0,  0,  0,  0,  0,  0, -5,
+                                            -5,  0,  0,  0,  0,  0,  0, -5,
+                                            -5,  0,  0,  0,  0,  0,  0, -5,
+                                             0,  0,  0,  5,  5,  0,  0,  0};
+
+    private static final int[] QUEEN_TABLE = {-20,-10,-10, -5, -5,-10,-10,-20,
+                                              -10,  0,  0,  0,  0,  0,  0,-10,
+                                              -10,  0,  5,  5,  5,  5,  0,-10,
+                                               -5,  0,  5,  5,  5,  5,  0, -5,
+                                                0,  0,  5,  5,  5,  5,  0, -5,
+                                              -10,  5,  5,  5,  5,  5,  0,-10,
+                                              -10,  0,  5,  0,  0,  0,  0,-10,
+                                              -20,-10,-10, -5, -5,-10,-10,-20};
+
+    private static final int[] KING_TABLE_EARLY = {-30,-40,-40,-50,-50,-40,-40,-30,
+                                                   -30,-40,-40,-50,-50,-40,-40,-30,
+                                                   -30,-40,-40,-50,-50,-40,-40,-30,
+                                                   -30,-40,-40,-50,-50,-40,-40,-30,
+                                                   -20,-30,-30,-40,-40,-30,-30,-20,
+                                                   -10,-20,-20,-20,-20,-20,-20,-10,
+                                                    20, 20,  0,  0,  0,  0, 20, 20,
+                                                    20, 30, 10,  0,  0, 10, 30, 20};
+
+    private static final int[] KING_TABLE_LATE = {-50,-40,-30,-20,-20,-30,-40,-50,
+                                                  -30,-20,-10,  0,  0,-10,-20,-30,
+                                                  -30,-10, 20, 30, 30, 20,-10,-30,
+                                                  -30,-10, 30, 40, 40, 30,-10,-30,
+                                                  -30,-10, 30, 40, 40, 30,-10,-30,
+                                                  -30,-10, 20, 30, 30, 20,-10,-30,
+                                                  -30,-30,  0,  0,  0,  0,-30,-30,
+                                                  -50,-30,-30,-30,-30,-30,-30,-50};
+
+    // The value of each team's pieces on each square, negated for black. Indexed by team, piece type, then position.
+    private static final int[][][] MIDDLEGAME_SCORES = initializeScores(false);
+    private static final int[][][] ENDGAME_SCORES = initializeScores(true);
+
+    private PieceSquareTables() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
+    private static int[][][] initializeScores(final boolean endgame) {
+        final int[][] tables = {PAWN_TABLE, ROOK_TABLE, KNIGHT_TABLE, BISHOP_TABLE,
+                endgame ? KING_TABLE_LATE : KING_TABLE_EARLY, QUEEN_TABLE};
+
+        final int[][][] scores = new int[2][tables.length][Utility.BOARD_SQUARE_COUNT];
+        for (int type = 0; type < tables.length; type++) {
+            for (int position = 0; position < Utility.BOARD_SQUARE_COUNT; position++) {
+                scores[Team.WHITE.getValue()][type][position] = MATERIAL_VALUES[type] + tables[type][position];
+                scores[Team.BLACK.getValue()][type][position] = -(MATERIAL_VALUES[type] + tables[type][63 - position]);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * @param piece The piece to score.
+     * @param position The position of the piece (0 - 63).
+     * @return The middlegame value of the piece on the square, positive for white and negative for black.
+     */
+    public static int getMiddlegameScore(final Piece piece, final int position) {
+        return MIDDLEGAME_SCORES[piece.getTeam().getValue()][piece.getPieceType().getValue()][position];
+    }
+
+    /**
+     * @param piece The piece to score.
+     * @param position The position of the piece (0 - 63).
+     * @return The endgame value of the piece on the square, positive for white and negative for black.
+     */
+    public static int getEndgameScore(final Piece piece, final int position) {
+        return ENDGAME_SCORES[piece.getTeam().getValue()][piece.getPieceType().getValue()][position];
+    }
+
+    /**
+     * @param type The type of piece.
+     * @return The material value of the piece type in centipawns, without any positional bonus. The king is worth 0.
+     */
+    public static int getMaterialValue(final Piece.PieceType type) {
+        return MATERIAL_VALUES[type.getValue()];
+    }
+
+    /**
+     * @param piece The piece to weigh.
+     * @return How much the piece counts towards the game phase.
+     */
+    public static int getPhaseWeight(final Piece piece) {
+        return PHASE_WEIGHTS[piece.getPieceType().getValue()];
+    }
+}
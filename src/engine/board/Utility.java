@@ -55,4 +55,28 @@ public class Utility {
         final int rank = piece.getPiecePosition() / Utility.RANK_SQUARE_COUNT;
         return (rank == 0 && piece.getTeam() == Team.WHITE) || (rank == 7 && piece.getTeam() == Team.BLACK);
     }
+
+    /**
+     * Names a position in algebraic notation, such as e4.
+     * @param position The position (0 - 63).
+     * @return The name of the square.
+     */
+    public static String positionToString(final int position) {
+        final char file = (char) ((position % RANK_SQUARE_COUNT) + 'a');
+        final int rank = RANK_SQUARE_COUNT - position / RANK_SQUARE_COUNT;
+        return file + Integer.toString(rank);
+    }
+
+    /**
+     * Finds the position of a square named in algebraic notation, such as e4.
+     * @param name The name of the square, in lower case.
+     * @return The position (0 - 63).
+     * @throws IllegalArgumentException If the name isn't a square.
+     */
+    public static int stringToPosition(final String name) {
+        if (name.length() != 2 || name.charAt(0) < 'a' || name.charAt(0) > 'h' || name.charAt(1) < '1' ||
+                name.charAt(1) > '8')
+            throw new IllegalArgumentException("Not a square: " + name);
+        return (RANK_SQUARE_COUNT - (name.charAt(1) - '0')) * RANK_SQUARE_COUNT + (name.charAt(0) - 'a');
+    }
 }
@@ -2,164 +2,136 @@ package engine.board;
 
 import engine.Team;
 import engine.pieces.Piece;
-import java.util.Random;
 
 /**
- * This class assists in creating zobrist hashes for a particular board state
+ * This class assists in creating zobrist hashes for a particular board state. A hash is the XOR of a key for each piece
+ * on its square, the castling rights, the en passant file and the side to move, so the board keeps its hash up to date
+ * by XORing in and out the keys of whatever a move changes.
+ *
+ * The keys are generated from a fixed seed, so a position has the same hash on every run and every machine, and hashes
+ * can be stored and shared. Anything that changes the keys, or how they're combined, must bump KEY_VERSION so stored
+ * hashes from an older version aren't mistaken for current ones.
  */
 public final class Zobrist {
+    public static final int KEY_VERSION = 1;
+    private static final long KEY_SEED = 0x5A0B_1257_C4E5_5EEDL;
 
-    // These variables represent randomly generated longs used to represent each particular facet of a board state
-    private static long blackToMove;
-    private static final long[] castles = new long[4];
-    private static final long[] enpassent = new long[8];
-    private static final long[][][] pieceVals = new long[2][6][64];
+    // These variables represent pseudo-randomly generated longs used to represent each particular facet of a board state
+    private static final long BLACK_TO_MOVE;
+    private static final long[] CASTLING_RIGHTS = new long[16]; // One key per combination of the four castling rights
+    private static final long[] ENPASSENT = new long[8]; // Indexed by file
+    private static final long[][][] PIECES = new long[2][6][64]; // Indexed by team, piece type, then position
 
-    private static final Zobrist INSTANCE = new Zobrist();
+    static {
+        final SplitMix64 random = new SplitMix64(KEY_SEED);
 
+        BLACK_TO_MOVE = random.nextLong();
 
-    private Zobrist() {
-        Random random = new Random();
-
-        blackToMove = random.nextLong();
-
-        for(int i = 0; i < 4; i++) {
+        final long[] castles = new long[4];
+        for(int i = 0; i < castles.length; i++) {
             castles[i] = random.nextLong();
         }
+        // Each combination of rights is the XOR of the rights it contains, so a single lookup replaces four
+        for(int rights = 0; rights < CASTLING_RIGHTS.length; rights++) {
+            for(int i = 0; i < castles.length; i++) {
+                if((rights & (1 << i)) != 0)
+                    CASTLING_RIGHTS[rights] ^= castles[i];
+            }
+        }
 
-        for(int i = 0; i < enpassent.length; i++) {
-            enpassent[i] = random.nextLong();
+        for(int i = 0; i < ENPASSENT.length; i++) {
+            ENPASSENT[i] = random.nextLong();
         }
 
         for(int i = 0; i < 2; i++) {
             for(int j = 0; j < 6; j++) {
                 for (int k = 0; k < 64; k++) {
-                    pieceVals[i][j][k] = random.nextLong();
+                    PIECES[i][j][k] = random.nextLong();
                 }
             }
         }
     }
 
+    private Zobrist() {
+        throw new RuntimeException("You cannot instantiate this class");
+    }
+
     /**
-     * Generates a zobrist hash for the given board state. Ideally should only be used for the initial board state -
-     * future hashes should be derived from the initially generated hash to save computation time.
+     * Generates a zobrist hash for the given board state from scratch. The hash only depends on the position, not the
+     * moves that led to it, and matches the hash the board keeps up to date as moves are made.
      *
      * @param board The given board state
      * @return The calculated hash
      */
-    long getFullHash(final Board board) {
+    public static long getFullHash(final Board board) {
         long hash = 0L;
 
         // Turn
         if(board.getTurn() == Team.BLACK)
-            hash ^= blackToMove;
-
+            hash ^= BLACK_TO_MOVE;
 
         // Pieces
         for(int i = 0; i < 64; i++) {
-            Square square = board.getSquare(i);
-            if(!square.isEmpty()) {
-                Piece piece = square.getPiece();
-                Team team = piece.getTeam();
-                Piece.PieceType type = piece.getPieceType();
-                hash ^= pieceVals[team.getValue()][type.getValue()][i];
-            }
+            final Square square = board.getSquare(i);
+            if(!square.isEmpty())
+                hash ^= getPieceKey(square.getPiece(), i);
         }
 
-        // Castles
-        if(board.canShortCastle(Team.WHITE)) {
-            hash ^= castles[0];
-        }
-        if(board.canShortCastle(Team.BLACK)) {
-            hash ^= castles[1];
-        }
-        if(board.canLongCastle(Team.WHITE)) {
-            hash ^= castles[2];
-        }
-        if(board.canLongCastle(Team.BLACK)) {
-            hash ^= castles[3];
-        }
+        return hash ^ getCastlingKey(board.getCastlingRights()) ^ getEnpassentKey(board);
+    }
 
-        // Enpassents
-        // If the last move was a pawn jump, check both the left and right sides of said pawn to see if an enemy pawn exists
-        // if yes, then the jumping pawn's column is an enpassent column, which hash is XORed with the cumulative hash.
-        if(board.peekLastMove() != null && board.peekLastMove().getType() == Move.moveType.PAWN_JUMP) {
-            Square leftSquare = board.getSquare(board.peekLastMove().getEndPosition() + 1);
-            if(!leftSquare.isEmpty()) {
-                Piece leftPiece = leftSquare.getPiece();
-                if(leftPiece.getTeam() == board.getTurn() && leftPiece.getPieceType() == Piece.PieceType.PAWN) {
-                    hash ^= enpassent[board.peekLastMove().getEndPosition() % 8];
-                    return hash; // ensure's we don't XOR enpassent twice
-                }
-            }
+    /**
+     * @return The key for a piece on the specified square.
+     */
+    static long getPieceKey(final Piece piece, final int position) {
+        return PIECES[piece.getTeam().getValue()][piece.getPieceType().getValue()][position];
+    }
 
-            Square rightSquare = board.getSquare(board.peekLastMove().getEndPosition() - 1);
-            if(!rightSquare.isEmpty()) {
-                Piece rightPiece = rightSquare.getPiece();
-                if(rightPiece.getTeam() == board.getTurn() && rightPiece.getPieceType() == Piece.PieceType.PAWN) {
-                    hash ^= enpassent[board.peekLastMove().getEndPosition() % 8];
-                }
-            }
-        }
-        return hash;
+    /**
+     * @return The key for a combination of castling rights, as stored by the board.
+     */
+    static long getCastlingKey(final int castlingRights) {
+        return CASTLING_RIGHTS[castlingRights];
     }
 
-    public static Zobrist getInstance() {
-        return INSTANCE;
+    static long getSideKey() {
+        return BLACK_TO_MOVE;
     }
 
     /**
-     * Updates the supplied hashCode with the appropriate values for the specified move
-     * @param hashCode The hashcode supplied
-     * @param move The move to update the hash with
-     * @return The updated hash
+     * The en passant file is only hashed when a pawn of the side to move stands ready to capture, so positions that
+     * only differ by an en passant capture nobody can make share a hash.
+     * @return The key for the board's en passant file, or 0 if no en passant capture is possible.
      */
-    public static long updateHash(long hashCode, final Move move, Board board) {
-        int startPos = move.getStartPosition();
-        int endPos = move.getEndPosition();
+    static long getEnpassentKey(final Board board) {
+        final int enpassentPosition = board.getEnpassentPosition();
+        if(enpassentPosition == Board.NO_ENPASSENT)
+            return 0L;
+
+        final Team team = board.getTurn();
+        final long capturingPawns = Bitboard.PAWN_ATTACKS[team.getOpponent().getValue()][enpassentPosition] &
+                board.getPieceBitboard(team, Piece.PieceType.PAWN);
+        return capturingPawns == Bitboard.EMPTY ? 0L : ENPASSENT[enpassentPosition % Utility.RANK_SQUARE_COUNT];
+    }
 
-        Piece piece = move.getPiece();
-        Piece.PieceType type = piece.getPieceType();
-        Team team = piece.getTeam();
+    /**
+     * The SplitMix64 generator. java.util.Random is avoided as it only has 48 bits of state, which leaves most longs
+     * impossible to generate.
+     *
+     * Implemented from prng.di.unimi.it/splitmix64.c
+     */
+    private static final class SplitMix64 {
+        private long state;
 
-        if(board.canShortCastle(Team.WHITE)) {
-            hashCode ^= castles[0];
-        }
-        if(board.canShortCastle(Team.BLACK)) {
-            hashCode ^= castles[1];
+        SplitMix64(final long seed) {
+            this.state = seed;
         }
-        if(board.canLongCastle(Team.WHITE)) {
-            hashCode ^= castles[2];
-        }
-        if(board.canLongCastle(Team.BLACK)) {
-            hashCode ^= castles[3];
-        }
-
 
-        // Enpassents
-        // If the last move was a pawn jump, check both the left and right sides of said pawn to see if an enemy pawn exists
-        // if yes, then the jumping pawn's column is an enpassent column, which hash is XORed with the cumulative hash.
-        if(board.peekLastMove() != null && board.peekLastMove().getType() == Move.moveType.PAWN_JUMP) {
-            Square leftSquare = board.getSquare(board.peekLastMove().getEndPosition() + 1);
-            if(!leftSquare.isEmpty()) {
-                Piece leftPiece = leftSquare.getPiece();
-                if(leftPiece.getTeam() == board.getTurn() && leftPiece.getPieceType() == Piece.PieceType.PAWN) {
-                    hashCode ^= enpassent[board.peekLastMove().getEndPosition() % 8];
-                    return hashCode; // ensure's we don't XOR enpassent twice
-                }
-            }
-
-            Square rightSquare = board.getSquare(board.peekLastMove().getEndPosition() - 1);
-            if(!rightSquare.isEmpty()) {
-                Piece rightPiece = rightSquare.getPiece();
-                if(rightPiece.getTeam() == board.getTurn() && rightPiece.getPieceType() == Piece.PieceType.PAWN) {
-                    hashCode ^= enpassent[board.peekLastMove().getEndPosition() % 8];
-                }
-            }
+        long nextLong() {
+            long z = (state += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
         }
-        hashCode ^= pieceVals[team.getValue()][type.getValue()][startPos];
-        hashCode ^= pieceVals[team.getValue()][type.getValue()][endPos];
-
-        return hashCode;
     }
-}
\ No newline at end of file
+}
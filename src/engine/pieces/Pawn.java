@@ -1,13 +1,12 @@
 package engine.pieces;
 
 import engine.Team;
+import engine.board.Bitboard;
 import engine.board.Board;
 import engine.board.Move;
+import engine.board.PackedMove;
 import engine.board.Utility;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Class representing a pawn
  */
@@ -15,54 +14,77 @@ public class Pawn extends Piece {
     public Pawn(final Team team, final int position, final boolean isFirstMove) {
         super(PieceType.PAWN, team, position, isFirstMove);
     }
-        private static final int[] PAWN_MOVE_OFFSETS = {7, 8, 9};
-
-    @Override
-    public List<Move> generatePossibleMoves(final Board board) {
-        final List<Move> moveList = new ArrayList<>();
-
-        final int i = this.getTeam() == Team.WHITE ? -1 : 1;
 
-        for(final int offset : PAWN_MOVE_OFFSETS) {
-            int proposedPosition = this.piecePosition + offset * i;
-            if(Utility.isValidPosition(proposedPosition)) {
-                if(offset == 8 && board.getSquare(proposedPosition).isEmpty()) {
-                    moveList.add(new Move(this, proposedPosition, Move.moveType.PAWN));
-                    proposedPosition += offset * i;
-                    if(this.isFirstMove() && board.getSquare(proposedPosition).isEmpty()) {
-                        moveList.add(new Move(this, proposedPosition, Move.moveType.PAWN_JUMP));
-                    }
-                } else if(offset == 7 || offset == 9) {
+    // The pieces a pawn can promote to, strongest first so the queen is picked when only the squares are known
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.KNIGHT, PieceType.ROOK, PieceType.BISHOP};
 
-                    if(isFileEdgeCase(this.piecePosition, offset*i)) {
-                        continue;
-                    }
-
-                    int enpassantOffset = offset == 7 ? 1 : -1;
+    @Override
+    public int generateMoves(final Board board, final long targets, final int[] moves, int moveCount) {
+        final int direction = this.getTeam() == Team.WHITE ? -8 : 8;
 
-                    if(this.getTeam() == Team.BLACK) enpassantOffset *= -1;
+        // Pushes. The jump square only needs to be a target itself, the square being jumped over just needs to be empty.
+        int proposedPosition = this.piecePosition + direction;
+        if(Utility.isValidPosition(proposedPosition) && board.getSquare(proposedPosition).isEmpty()) {
+            if(Bitboard.isSet(targets, proposedPosition)) {
+                moveCount = addPawnMove(proposedPosition, Move.moveType.PAWN, null, moves, moveCount);
+            }
+            proposedPosition += direction;
+            if(this.isFirstMove() && board.getSquare(proposedPosition).isEmpty() && Bitboard.isSet(targets, proposedPosition)) {
+                moves[moveCount++] = PackedMove.create(this.piecePosition, proposedPosition, Move.moveType.PAWN_JUMP,
+                        PieceType.PAWN, null, null);
+            }
+        }
 
-                    //EnPassant stuff
-                    if(board.peekLastMove() != null && board.peekLastMove().getType() == Move.moveType.PAWN_JUMP) {
-                        if(board.peekLastMove().getEndPosition() == this.piecePosition + enpassantOffset) {
-                            moveList.add(new Move(this, proposedPosition, Move.moveType.ENPASSENT));
-                        }
-                    }
+        final long attacks = Bitboard.PAWN_ATTACKS[team.getValue()][this.piecePosition];
 
-                    if(!board.getSquare(proposedPosition).isEmpty() &&
-                            board.getSquare(proposedPosition).getPiece().getTeam() != this.getTeam()) {
-                        moveList.add(new Move(this, proposedPosition, board.getSquare(proposedPosition).getPiece(), Move.moveType.PAWN_ATTACK));
-                    }
-                }
+        //EnPassant stuff. The pawn that just jumped sits beside this pawn, and can be taken on the square it jumped over.
+        final int enpassantPosition = board.getEnpassentPosition();
+        if(enpassantPosition != Board.NO_ENPASSENT) {
+            final int jumpedPawnPosition = enpassantPosition - direction;
+            if(Bitboard.isSet(attacks, enpassantPosition) &&
+                    (Bitboard.isSet(targets, enpassantPosition) || Bitboard.isSet(targets, jumpedPawnPosition))) {
+                moves[moveCount++] = PackedMove.create(this.piecePosition, enpassantPosition, Move.moveType.ENPASSENT,
+                        PieceType.PAWN, PieceType.PAWN, null);
             }
         }
 
-        return moveList;
+        for(long captures = attacks & targets & board.getTeamBitboard(team.getOpponent()); captures != Bitboard.EMPTY;
+            captures = Bitboard.popLowestSquare(captures)) {
+            final int destinationPosition = Bitboard.lowestSquare(captures);
+            moveCount = addPawnMove(destinationPosition, Move.moveType.PAWN_ATTACK,
+                    board.getSquare(destinationPosition).getPiece().getPieceType(), moves, moveCount);
+        }
+
+        return moveCount;
     }
 
-    private static boolean isFileEdgeCase(final int position, final int offset) {
-        final boolean isFirstFileEdgeCase = Utility.IS_FIRST_FILE[position] && (offset == 7 || offset == -9);
-        final boolean isEighthFileEdgeCase = Utility.IS_EIGHTH_FILE[position] && (offset == 9 || offset == -7);
-        return isFirstFileEdgeCase || isEighthFileEdgeCase;
+    /**
+     * Pushes onto the last rank are kept alongside the captures, since a promotion changes the material balance just
+     * as much. The empty squares the pawn attacks are kept too, as the only move onto one is an en passant capture,
+     * which would otherwise be lost when a pin restricts the targets to a ray the captured pawn isn't on.
+     */
+    @Override
+    public int generateCaptures(final Board board, final long targets, final int[] moves, final int moveCount) {
+        final long enpassantSquares = Bitboard.PAWN_ATTACKS[team.getValue()][this.piecePosition] & ~board.getOccupiedBitboard();
+        return generateMoves(board, targets & (board.getTeamBitboard(team.getOpponent()) | Bitboard.PROMOTION_RANKS |
+                enpassantSquares), moves, moveCount);
+    }
+
+    /**
+     * Adds a pawn push or attack to the move array, expanding it into one move per promotion type if the pawn reaches
+     * the back rank.
+     */
+    private int addPawnMove(final int destinationPosition, final Move.moveType moveType, final PieceType attackedType,
+                            final int[] moves, int moveCount) {
+        final int rank = destinationPosition / Utility.RANK_SQUARE_COUNT;
+        if(rank == 0 || rank == Utility.RANK_SQUARE_COUNT - 1) {
+            for(final PieceType promotionType : PROMOTION_TYPES)
+                moves[moveCount++] = PackedMove.create(this.piecePosition, destinationPosition, moveType, PieceType.PAWN,
+                        attackedType, promotionType);
+        } else {
+            moves[moveCount++] = PackedMove.create(this.piecePosition, destinationPosition, moveType, PieceType.PAWN,
+                    attackedType, null);
+        }
+        return moveCount;
     }
 }
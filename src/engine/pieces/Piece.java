@@ -1,9 +1,13 @@
 package engine.pieces;
 
+import engine.board.Bitboard;
 import engine.board.Board;
 import engine.Team;
 import engine.board.Move;
+import engine.board.PackedMove;
+import engine.board.Square;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -45,14 +49,81 @@ public abstract class Piece {
      * @param board The board the piece currently sits on
      * @return The list of possible moves
      */
-    public abstract List<Move> generatePossibleMoves(final Board board);
+    public List<Move> generatePossibleMoves(final Board board) {
+        final int[] moves = new int[Board.MAX_MOVES];
+        final int moveCount = generateMoves(board, ~Bitboard.EMPTY, moves, 0);
+
+        final List<Move> moveList = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++)
+            moveList.add(new Move(moves[i]));
+        return moveList;
+    }
+
+    /**
+     * Generates the possible moves the piece can make onto the specified target squares, and stores them in packed form.
+     * Restricting the targets lets a legal move generator only produce moves that block a check or stay on a pin ray.
+     * @param board The board the piece currently sits on
+     * @param targets The bitboard of allowed destination squares
+     * @param moves The array to store the packed moves in
+     * @param moveCount The index in the array to start storing moves at
+     * @return The new number of moves in the array
+     */
+    public abstract int generateMoves(final Board board, final long targets, final int[] moves, int moveCount);
+
+    /**
+     * Generates only the captures the piece can make onto the specified target squares, for searches that skip quiet
+     * moves. Pawns also generate their promotions.
+     * @param board The board the piece currently sits on
+     * @param targets The bitboard of allowed destination squares
+     * @param moves The array to store the packed moves in
+     * @param moveCount The index in the array to start storing moves at
+     * @return The new number of moves in the array
+     */
+    public int generateCaptures(final Board board, final long targets, final int[] moves, final int moveCount) {
+        return generateMoves(board, targets & board.getTeamBitboard(team.getOpponent()), moves, moveCount);
+    }
+
+    /**
+     * Converts a bitboard of attacked squares into moves. Squares occupied by the piece's own team are skipped, empty
+     * squares become quiet moves, and squares occupied by the opposing team become attacking moves.
+     * @param board The board the piece currently sits on
+     * @param attacks The bitboard of squares the piece attacks, already restricted to the allowed targets
+     * @param quietType The move type to use for non attacking moves
+     * @param attackType The move type to use for attacking moves
+     * @param moves The array to store the packed moves in
+     * @param moveCount The index in the array to start storing moves at
+     * @return The new number of moves in the array
+     */
+    int generateMovesFromAttacks(final Board board, final long attacks, final Move.moveType quietType,
+                                 final Move.moveType attackType, final int[] moves, int moveCount) {
+        for (long targets = attacks & ~board.getTeamBitboard(team); targets != Bitboard.EMPTY;
+             targets = Bitboard.popLowestSquare(targets)) {
+            final int destinationPosition = Bitboard.lowestSquare(targets);
+            final Square destinationSquare = board.getSquare(destinationPosition);
+            if (destinationSquare.isEmpty()) {
+                moves[moveCount++] = PackedMove.create(piecePosition, destinationPosition, quietType, peiceType, null, null);
+            } else {
+                moves[moveCount++] = PackedMove.create(piecePosition, destinationPosition, attackType, peiceType,
+                        destinationSquare.getPiece().getPieceType(), null);
+            }
+        }
+        return moveCount;
+    }
 
     public Piece copyOf() {
-        final Team team = (this.team == Team.WHITE) ? Team.WHITE : Team.BLACK;
-        final int position = this.piecePosition;
-        final boolean isFirstMove = this.isFirstMove();
+        return create(this.getPieceType(), this.team, this.piecePosition, this.isFirstMove());
+    }
 
-        switch(this.getPieceType()) {
+    /**
+     * Creates a new piece of the specified type
+     * @param type The type of piece
+     * @param team The team the piece belongs to
+     * @param position The position of the piece on the board
+     * @param isFirstMove If the piece has moved yet or not
+     * @return The new piece
+     */
+    public static Piece create(final PieceType type, final Team team, final int position, final boolean isFirstMove) {
+        switch(type) {
             case PAWN:
                 return new Pawn(team, position, isFirstMove);
             case KNIGHT:
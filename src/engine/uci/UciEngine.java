@@ -0,0 +1,311 @@
+package engine.uci;
+
+import engine.Team;
+import engine.ai.SearchEngine;
+import engine.ai.SearchLimits;
+import engine.ai.SearchListener;
+import engine.ai.SearchOptions;
+import engine.ai.SearchResult;
+import engine.ai.TranspositionTable;
+import engine.board.Board;
+import engine.board.PackedMove;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A console front-end speaking the Universal Chess Interface protocol, so the engine can be run without the gui by a
+ * chess gui or tournament manager. Commands are read from standard input and answered on standard output. Searches run
+ * on a separate thread, which keeps the input loop free to receive stop and isready while thinking.
+ *
+ * Implemented from www.shredderchess.com/chess-features/uci-universal-chess-interface.html
+ *
+ * Usage: java engine.uci.UciEngine
+ */
+public final class UciEngine {
+    private static final String NAME = "Alpha Beta Chess Engine";
+    private static final String AUTHOR = "Justin DeCunha";
+    private static final int MAX_THREADS = 256;
+    private static final int DEFAULT_MOVES_TO_GO = 30; // The number of moves the remaining clock time is spread over
+    private static final long MOVE_OVERHEAD = 50; // Milliseconds kept in hand for communication delays
+
+    private final BufferedReader input;
+    private final PrintStream output;
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SearchEngine engine = new SearchEngine();
+    private Board board = new Board();
+    private Future<?> searchResult; // The running search, or null if there hasn't been one
+    private AtomicBoolean stopped = new AtomicBoolean(false); // Stops the running search
+    private CountDownLatch stopReceived = new CountDownLatch(0); // An infinite search reports its move once released
+
+    public UciEngine(final InputStream input, final PrintStream output) {
+        this.input = new BufferedReader(new InputStreamReader(input));
+        this.output = output;
+        engine.registerMBean(); // Lets the engine be watched from a JMX client while it plays
+    }
+
+    public static void main(final String[] args) throws IOException {
+        new UciEngine(System.in, System.out).run();
+    }
+
+    /**
+     * Reads and answers commands until quit is received or the input ends.
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = input.readLine()) != null) {
+            final String[] tokens = line.trim().split("\\s+");
+            switch (tokens[0]) {
+                case "uci":
+                    send("id name " + NAME);
+                    send("id author " + AUTHOR);
+                    send("option name Hash type spin default " + TranspositionTable.DEFAULT_MEGABYTES + " min 1 max " +
+                            TranspositionTable.MAX_MEGABYTES);
+                    send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    send("option name NullMovePruning type check default " +
+                            SearchOptions.DEFAULT.isNullMovePruning());
+                    send("option name LateMoveReductions type check default " +
+                            SearchOptions.DEFAULT.isLateMoveReductions());
+                    send("option name AspirationWindows type check default " +
+                            SearchOptions.DEFAULT.isAspirationWindows());
+                    send("uciok");
+                    break;
+                case "isready":
+                    send("readyok");
+                    break;
+                case "setoption":
+                    waitForSearch();
+                    setOption(tokens);
+                    break;
+                case "ucinewgame":
+                    waitForSearch();
+                    engine.clearHash();
+                    break;
+                case "position":
+                    waitForSearch();
+                    setPosition(tokens);
+                    break;
+                case "go":
+                    waitForSearch();
+                    go(tokens);
+                    break;
+                case "stop":
+                    stopReceived.countDown();
+                    stopped.set(true);
+                    break;
+                case "quit":
+                    stopReceived.countDown();
+                    engine.shutdown();
+                    searchThread.shutdownNow();
+                    return;
+                default:
+                    // The protocol says unknown commands are ignored
+            }
+        }
+    }
+
+    /**
+     * Blocks until the running search, if any, has reported its move.
+     */
+    private void waitForSearch() {
+        if (searchResult == null)
+            return;
+        try {
+            searchResult.get();
+        } catch (final Exception e) {
+            send("info string search failed: " + e);
+        }
+        searchResult = null;
+    }
+
+    /**
+     * Handles "setoption name [name] value [value]".
+     */
+    private void setOption(final String[] tokens) {
+        final String name = valueAfter(tokens, "name");
+        final String value = valueAfter(tokens, "value");
+        if (name == null || value == null)
+            return;
+
+        try {
+            if (name.equalsIgnoreCase("Hash")) {
+                engine.setHashSize(Integer.parseInt(value));
+            } else if (name.equalsIgnoreCase("Threads")) {
+                engine.setThreadCount(Math.min(Integer.parseInt(value), MAX_THREADS));
+            } else if (name.equalsIgnoreCase("NullMovePruning")) {
+                engine.setOptions(engine.getOptions().withNullMovePruning(parseCheck(value)));
+            } else if (name.equalsIgnoreCase("LateMoveReductions")) {
+                engine.setOptions(engine.getOptions().withLateMoveReductions(parseCheck(value)));
+            } else if (name.equalsIgnoreCase("AspirationWindows")) {
+                engine.setOptions(engine.getOptions().withAspirationWindows(parseCheck(value)));
+            } else {
+                send("info string unknown option " + name);
+            }
+        } catch (final IllegalArgumentException e) {
+            send("info string invalid value for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * @return The value of a check option, which is either true or false.
+     */
+    private static boolean parseCheck(final String value) {
+        if (!value.equals("true") && !value.equals("false"))
+            throw new IllegalArgumentException("Not a check value: " + value);
+        return value.equals("true");
+    }
+
+    /**
+     * Handles "position startpos [moves ...]" and "position fen [fen] [moves ...]". Moves are given in coordinate
+     * notation, such as e2e4 or e7e8q.
+     */
+    private void setPosition(final String[] tokens) {
+        int movesIndex = tokens.length;
+        for (int i = 1; i < tokens.length; i++)
+            if (tokens[i].equals("moves"))
+                movesIndex = i;
+
+        final Board position;
+        if (tokens.length > 1 && tokens[1].equals("startpos")) {
+            position = new Board();
+        } else if (tokens.length > 1 && tokens[1].equals("fen")) {
+            final String fen = String.join(" ", Arrays.copyOfRange(tokens, 2, movesIndex));
+            try {
+                position = new Board(fen);
+            } catch (final IllegalArgumentException e) {
+                send("info string invalid fen: " + e.getMessage());
+                return;
+            }
+        } else {
+            send("info string position needs startpos or fen");
+            return;
+        }
+
+        for (int i = movesIndex + 1; i < tokens.length; i++) {
+            final int move = position.findLegalMove(tokens[i]);
+            if (move == PackedMove.NONE) {
+                send("info string illegal move " + tokens[i]);
+                return;
+            }
+            position.makeMove(move);
+        }
+        board = position;
+    }
+
+    /**
+     * Handles "go", with any of depth, nodes, movetime, wtime, btime, winc, binc, movestogo and infinite.
+     */
+    private void go(final String[] tokens) {
+        final SearchLimits limits;
+        try {
+            limits = parseLimits(tokens);
+        } catch (final IllegalArgumentException e) {
+            send("info string invalid go command: " + e.getMessage());
+            return;
+        }
+
+        final Board board = this.board;
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        this.stopped = stopped;
+        final CountDownLatch stopReceived = new CountDownLatch(hasToken(tokens, "infinite") ? 1 : 0);
+        this.stopReceived = stopReceived;
+
+        searchResult = searchThread.submit(() -> {
+            final AtomicInteger bestMove = new AtomicInteger(PackedMove.NONE); // From the last completed iteration
+            try {
+                final SearchResult result = engine.search(board, limits, new SearchListener() {
+                    @Override
+                    public void iterationCompleted(final SearchResult iteration) {
+                        bestMove.set(iteration.getBestMove());
+                        sendInfo(iteration);
+                    }
+                }, stopped);
+                bestMove.set(result.getBestMove());
+            } catch (final RuntimeException | Error e) {
+                // The gui is waiting for a move and would otherwise only notice when the engine runs out of time
+                send("info string search failed: " + e);
+            }
+
+            // An infinite search can only report its move once told to stop
+            stopReceived.await();
+
+            final int move = bestMove.get();
+            send("bestmove " + (move == PackedMove.NONE ? "0000" : PackedMove.toString(move)));
+            return null;
+        });
+    }
+
+    private void sendInfo(final SearchResult result) {
+        final String score = result.isMate() ? "mate " + result.getMateMoves() : "cp " + result.getScore();
+        send("info depth " + result.getDepth() + " score " + score + " nodes " + result.getNodes() +
+                " nps " + result.getNodesPerSecond() + " time " + result.getTime() + " pv " +
+                result.getPrincipalVariationString());
+    }
+
+    private SearchLimits parseLimits(final String[] tokens) {
+        final boolean white = board.getTurn() == Team.WHITE;
+        // A gui may ask for any depth, and searching as deep as the engine can is the closest it can get
+        final int depth = Math.min(intAfter(tokens, "depth", 0), SearchLimits.MAX_DEPTH);
+        final long nodes = longAfter(tokens, "nodes", 0);
+        long moveTime = longAfter(tokens, "movetime", 0);
+
+        // Spreads the remaining clock time over the moves left until the next time control
+        final long time = longAfter(tokens, white ? "wtime" : "btime", 0);
+        if (moveTime == 0 && time > 0) {
+            final long increment = longAfter(tokens, white ? "winc" : "binc", 0);
+            final int movesToGo = intAfter(tokens, "movestogo", DEFAULT_MOVES_TO_GO);
+            moveTime = Math.max(1, Math.min(time / Math.max(1, movesToGo) + increment * 3 / 4, time - MOVE_OVERHEAD));
+        }
+
+        if (hasToken(tokens, "infinite") || depth == 0 && moveTime == 0 && nodes == 0)
+            return new SearchLimits(SearchLimits.MAX_DEPTH, 0, nodes);
+        return new SearchLimits(depth, moveTime, nodes);
+    }
+
+    private static boolean hasToken(final String[] tokens, final String token) {
+        for (final String t : tokens)
+            if (t.equals(token))
+                return true;
+        return false;
+    }
+
+    private static int intAfter(final String[] tokens, final String token, final int defaultValue) {
+        final String value = valueAfter(tokens, token);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static long longAfter(final String[] tokens, final String token, final long defaultValue) {
+        final String value = valueAfter(tokens, token);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    /**
+     * @return The token following the specified token, or null if it isn't present.
+     */
+    private static String valueAfter(final String[] tokens, final String token) {
+        for (int i = 0; i < tokens.length - 1; i++)
+            if (tokens[i].equals(token))
+                return tokens[i + 1];
+        return null;
+    }
+
+    private synchronized void send(final String message) {
+        output.println(message);
+        output.flush();
+    }
+}
@@ -0,0 +1,89 @@
+package gui;
+
+import engine.ai.SearchEngine;
+import engine.ai.SearchLimits;
+import engine.ai.SearchListener;
+import engine.ai.TranspositionTable;
+import engine.board.Board;
+import engine.board.Move;
+import javafx.concurrent.Service;
+import javafx.concurrent.Task;
+
+/**
+ * A class that handles threading for the negamax algorithm. The main workload of the program is placed on a separate
+ * thread to maintain responsiveness of the gui. The search itself is done by a SearchEngine, this class only adapts it
+ * to a JavaFX service.
+ */
+public class AIThinkTank extends Service<Move> {
+    public static final int DEFAULT_HASH_SIZE = TranspositionTable.DEFAULT_MEGABYTES; // In megabytes
+
+    private final SearchEngine searchEngine;
+    private final Board board; // The board to operate on
+    private SearchLimits limits; // The budget of the next search
+
+
+    public AIThinkTank(Board board) {
+        searchEngine = new SearchEngine(DEFAULT_HASH_SIZE, 1);
+        this.board = board;
+    }
+
+    /**
+     * Sets the number of threads to search with. Should not be called while thinking.
+     * @param threadCount The number of threads, one or more.
+     */
+    public void setThreadCount(final int threadCount) {
+        searchEngine.setThreadCount(threadCount);
+    }
+
+    public int getThreadCount() {
+        return searchEngine.getThreadCount();
+    }
+
+    /**
+     * Replaces the transposition table with an empty one of the specified size. Should not be called while thinking.
+     * @param megabytes The size of the transposition table in megabytes.
+     */
+    public void setHashSize(final int megabytes) {
+        searchEngine.setHashSize(megabytes);
+    }
+
+    public void start(final int depth) {
+        start(SearchLimits.depth(depth));
+    }
+
+    /**
+     * Starts thinking about the next move, returning the best move found once the limits are reached.
+     * @param limits The depth, time and node budget of the search.
+     */
+    public void start(final SearchLimits limits) {
+        this.limits = limits;
+        this.start();
+    }
+
+    @Override
+    protected void succeeded() {
+        super.succeeded();
+        this.reset(); // Resets the state of the service back to READY upon completion.
+    }
+
+    @Override
+    protected Task<Move> createTask() {
+        final SearchLimits limits = this.limits;
+        return new Task<Move>() {
+            @Override
+            protected Move call() {
+                return searchEngine.search(board, limits, new SearchListener() {
+                    @Override
+                    public void progressUpdated(final double progress) {
+                        updateProgress(progress, 1.0);
+                    }
+                }).getMove();
+            }
+
+            @Override
+            protected void cancelled() {
+                searchEngine.stop();
+            }
+        };
+    }
+}
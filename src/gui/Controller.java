@@ -1,7 +1,6 @@
 package gui;
 
 import engine.Team;
-import engine.ai.AIThinkTank;
 import engine.board.Board;
 import engine.board.Move;
 import engine.board.Square;